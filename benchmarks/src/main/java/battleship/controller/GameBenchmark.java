@@ -0,0 +1,106 @@
+package battleship.controller;
+
+import battleship.model.Grid;
+import battleship.model.Outcome;
+import battleship.view.UserInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a full Game.playOneRound, driven by a user interface that sweeps
+ * the board row by row, against the same sweep fired straight at a GameEngine with
+ * no text in between. A new game is started whenever the previous one is won.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"10", "100", "1000", "4096"})
+    public int size;
+
+    private Grid grid;
+    private ScriptedUserInterface ui;
+    private Game game;
+    private GameEngine engine;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        grid = new Grid(size);
+        ui = new ScriptedUserInterface(size);
+        game = new Game(grid, ui);
+        engine = new GameEngine(new Grid(size), null);
+    }
+
+    @Benchmark
+    public int playOneRound() {
+        if (!grid.areAnyShipsAfloat()) {
+            game = new Game(grid, ui);
+            ui.next = 0;
+        }
+
+        game.playOneRound();
+        return ui.outputLength;
+    }
+
+    @Benchmark
+    public Outcome fire() {
+        if (engine.isWon()) {
+            engine = new GameEngine(engine.getGrid(), null);
+            cursor = 0;
+        }
+
+        final int cell = cursor++;
+        return engine.fire(cell % size, cell / size);
+    }
+
+    /**
+     * Answers each prompt with the next cell of the board, joining pre-built column
+     * and row labels so that number formatting is not measured. Every cell is answered
+     * once per game, however large the board.
+     */
+    private static class ScriptedUserInterface implements UserInterface {
+        private final int size;
+        private final String[] columns;
+        private final String[] rows;
+        private int next;
+        private int outputLength;
+
+        ScriptedUserInterface(final int size) {
+            this.size = size;
+            columns = new String[size];
+            rows = new String[size];
+            for (int i = 0; i < size; i++) {
+                columns[i] = i + ",";
+                rows[i] = Integer.toString(i);
+            }
+        }
+
+        @Override
+        public String in() {
+            final int cell = next;
+            next = (next + 1) % (size * size);
+            return columns[cell % size].concat(rows[cell / size]);
+        }
+
+        @Override
+        public void out(final String s) {
+            outputLength += s.length();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package battleship.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the labels of a round, compiled by Labels against parsing their templates
+ * with MessageFormat on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LabelsBenchmark {
+
+    private ResourceBundle bundle;
+    private Labels labels;
+    private StringBuilder line;
+    private int attempts;
+
+    @Setup
+    public void setUp() {
+        bundle = ResourceBundle.getBundle("labels", Locale.ROOT);
+        labels = Labels.forLocale(Locale.ROOT);
+        line = new StringBuilder();
+    }
+
+    @Benchmark
+    public String constantMessageFormat() {
+        return MessageFormat.format(bundle.getString("Hit"), (String) null);
+    }
+
+    @Benchmark
+    public String constant() {
+        return labels.text("Hit");
+    }
+
+    @Benchmark
+    public String numberMessageFormat() {
+        return MessageFormat.format(bundle.getString("Attempts"), ++attempts);
+    }
+
+    @Benchmark
+    public String number() {
+        return labels.format("Attempts", ++attempts);
+    }
+
+    @Benchmark
+    public StringBuilder numberAppended() {
+        line.setLength(0);
+        labels.appendTo(line, "Attempts", ++attempts);
+        return line;
+    }
+}
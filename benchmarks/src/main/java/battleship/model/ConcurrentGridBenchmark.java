@@ -0,0 +1,66 @@
+package battleship.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark for ConcurrentGrid: every thread strikes the same board,
+ * interleaved so that neighbouring cells, and so the same bitboard words, are
+ * struck by different threads. Run with -t 1, -t 2, -t 4, ... to chart scaling.
+ * A fresh board is laid out for each iteration; once a thread has struck all of
+ * its cells its further strikes are repeats.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ConcurrentGridBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedBoard {
+        @Param({"1000", "4096"})
+        public int size;
+
+        ConcurrentGrid grid;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            grid = new ConcurrentGrid(size);
+            grid.placeAllShipsRandomly(new JdkRandomSource(42));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Striker {
+        int next;
+        int stride;
+
+        @Setup(Level.Iteration)
+        public void setUp(final ThreadParams threads) {
+            next = threads.getThreadIndex();
+            stride = threads.getThreadCount();
+        }
+    }
+
+    @Benchmark
+    public Outcome strike(final SharedBoard board, final Striker striker) {
+        final int squares = board.size * board.size;
+        final int cell = striker.next;
+        striker.next = (cell + striker.stride) % squares;
+        return board.grid.tryStrike(cell % board.size, cell / board.size);
+    }
+}
@@ -0,0 +1,206 @@
+package battleship.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the Grid operations on each storage backend and a range of sizes.
+ * The place and strike suites sweep the board one cell at a time and refill it
+ * once every cell has been used, so that refill is amortized into their scores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+    @State(Scope.Thread)
+    public static class Board {
+        @Param({"10", "100", "1000", "4096"})
+        public int size;
+
+        @Param({"BITBOARD", "CELLS", "SPARSE"})
+        public Grid.Storage storage;
+
+        Grid grid;
+        int cursor;
+
+        @Setup
+        public void setUp() {
+            grid = newGrid();
+            fill();
+        }
+
+        /**
+         * @return a grid with a patrol boat for every two squares, as each ship is placed once
+         */
+        Grid newGrid() {
+            return new Grid(size, storage, new battleship.model.Fleet.Builder().add(Ship.PATROL, size * size / 2)
+                                                                               .build(), Grid.Placement.UNIFORM);
+        }
+
+        /**
+         * Return the board to the state each sweep starts from.
+         */
+        void fill() {
+            grid.reset();
+            cursor = 0;
+        }
+
+        /**
+         * Tile the board with patrol boats, which fit any even size exactly.
+         */
+        void tile() {
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x += Ship.PATROL.length) {
+                    grid.tryPlace(grid.getFleet().get((y * size + x) / Ship.PATROL.length), x, y);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TiledBoard extends Board {
+        @Override
+        void fill() {
+            super.fill();
+            tile();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DamagedBoard extends Board {
+        @Override
+        void fill() {
+            super.fill();
+            tile();
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x += Ship.PATROL.length) {
+                    grid.tryStrike(x, y);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Fleet extends Board {
+        final RandomSource random = new SplittableRandomSource(42);
+
+        @Override
+        Grid newGrid() {
+            return new Grid(size, storage);
+        }
+
+        @Override
+        void fill() {
+            grid.placeAllShipsRandomly(random);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Rendering {
+        @Param({"true", "false"})
+        public boolean mask;
+
+        final StringBuilder out = new StringBuilder();
+    }
+
+    @Benchmark
+    public Outcome place(final Board board) {
+        if (board.cursor >= board.size * board.size) {
+            board.fill();
+        }
+
+        final int cell = board.cursor;
+        board.cursor += Ship.PATROL.length;
+        return board.grid.tryPlace(board.grid.getFleet().get(cell / Ship.PATROL.length), cell % board.size,
+                                   cell / board.size);
+    }
+
+    @Benchmark
+    public Grid placeAllShipsRandomly(final Fleet fleet) {
+        fleet.grid.placeAllShipsRandomly(fleet.random);
+        return fleet.grid;
+    }
+
+    /**
+     * The unseeded layout every interactive game uses; run with -t to check that it
+     * scales with threads rather than contending on a shared generator.
+     */
+    @Benchmark
+    public Grid placeAllShipsRandomlyUnseeded(final Fleet fleet) {
+        fleet.grid.placeAllShipsRandomly();
+        return fleet.grid;
+    }
+
+    @Benchmark
+    public Outcome strikeMiss(final Board board) {
+        if (board.cursor >= board.size * board.size) {
+            board.fill();
+        }
+
+        final int cell = board.cursor++;
+        return board.grid.tryStrike(cell % board.size, cell / board.size);
+    }
+
+    @Benchmark
+    public Outcome strikeHit(final TiledBoard board) {
+        return strikePatrolBoat(board, 0);
+    }
+
+    @Benchmark
+    public Outcome strikeSinking(final DamagedBoard board) {
+        return strikePatrolBoat(board, 1);
+    }
+
+    /**
+     * Strike the first (offset 0) or second (offset 1) cell of the next patrol boat.
+     */
+    private static Outcome strikePatrolBoat(final Board board, final int offset) {
+        if (board.cursor >= board.size * board.size) {
+            board.fill();
+        }
+
+        final int cell = board.cursor + offset;
+        board.cursor += Ship.PATROL.length;
+        return board.grid.tryStrike(cell % board.size, cell / board.size);
+    }
+
+    @Benchmark
+    public boolean areAnyShipsAfloat(final Fleet fleet) {
+        return fleet.grid.areAnyShipsAfloat();
+    }
+
+    @Benchmark
+    public String display(final Fleet fleet, final Rendering rendering) {
+        return fleet.grid.display(rendering.mask);
+    }
+
+    @Benchmark
+    public StringBuilder render(final Fleet fleet, final Rendering rendering) throws IOException {
+        rendering.out.setLength(0);
+        fleet.grid.render(rendering.mask, rendering.out);
+        return rendering.out;
+    }
+
+    @Benchmark
+    public void cellIterator(final Fleet fleet, final Blackhole blackhole) {
+        for (Cell cell : fleet.grid) {
+            blackhole.consume(cell);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package battleship.persistence;
+
+import battleship.model.Fleet;
+import battleship.model.MoveListener;
+import battleship.model.Outcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of journaling strikes when each thread waits for its strike to be on the
+ * disk every syncEvery strikes. Run with -t to see concurrent syncs share one force.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveJournalBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Journal {
+        @Param({"1", "64", "4096"})
+        public int syncEvery;
+
+        final AtomicLong games = new AtomicLong();
+        File file;
+        MoveJournal journal;
+
+        @Setup
+        public void setUp() throws IOException {
+            file = File.createTempFile("journal", ".bin");
+            file.delete();
+            journal = new MoveJournal(file.toPath());
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            journal.close();
+            file.delete();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Game {
+        MoveListener listener;
+        int strikes;
+
+        @Setup
+        public void setUp(final Journal journal) throws IOException {
+            listener = journal.journal.newGame(journal.games.incrementAndGet(), 10, Fleet.STANDARD,
+                                               journal.syncEvery);
+        }
+    }
+
+    @Benchmark
+    public int strike(final Game game) {
+        final int strike = game.strikes++;
+        game.listener.struck(strike % 10, strike / 10 % 10, Outcome.MISS);
+        return strike;
+    }
+}
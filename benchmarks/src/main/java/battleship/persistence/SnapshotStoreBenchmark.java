@@ -0,0 +1,78 @@
+package battleship.persistence;
+
+import battleship.controller.GameEngine;
+import battleship.model.Grid;
+import battleship.model.SplittableRandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of suspending a game into, and resuming it from, a memory-mapped store,
+ * cycling through the slots so that the whole file is touched.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotStoreBenchmark {
+
+    @Param({"10", "100"})
+    public int size;
+
+    @Param({"100000"})
+    public long slots;
+
+    private File file;
+    private MappedSnapshotStore store;
+    private GameEngine engine;
+    private long slot;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("snapshots", ".bin");
+        file.delete();
+        store = new MappedSnapshotStore(file.toPath(), size, slots);
+        engine = new GameEngine(new Grid(size), new SplittableRandomSource(42));
+        for (int i = 0; i < size; i++) {
+            engine.fire(i, i);
+        }
+        for (long i = 0; i < slots; i++) {
+            store.save(i, engine);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public GameEngine suspend() {
+        slot = (slot + 1) % slots;
+        store.save(slot, engine);
+        return engine;
+    }
+
+    @Benchmark
+    public GameEngine resume() {
+        slot = (slot + 1) % slots;
+        return store.load(slot);
+    }
+}
@@ -0,0 +1,63 @@
+package battleship.simulation;
+
+import battleship.model.Coordinate;
+import battleship.model.Grid;
+import battleship.model.JdkRandomSource;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of choosing and recording one shot with each targeting strategy. A new game
+ * is laid out whenever the previous one is won, and that is amortized into the score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TargetingBenchmark {
+
+    @Param({"10", "100"})
+    public int size;
+
+    @Param({"random", "probability"})
+    public String strategyName;
+
+    private final RandomSource random = new JdkRandomSource(42);
+    private Grid grid;
+    private TargetingStrategy strategy;
+
+    @Setup
+    public void setUp() {
+        grid = new Grid(size);
+        strategy = "random".equals(strategyName) ? new RandomTargeting() : new ProbabilityTargeting();
+    }
+
+    @Benchmark
+    public Outcome shot() {
+        if (!grid.areAnyShipsAfloat()) {
+            grid.placeAllShipsRandomly(random);
+            strategy.newGame(size, grid.getFleet(), random);
+        }
+
+        final int shot = strategy.nextShot();
+        final Outcome outcome = grid.tryStrike(shot);
+        strategy.record(shot, outcome, outcome == Outcome.SUNK ?
+                grid.getRevealedShip(Coordinate.unpackX(shot), Coordinate.unpackY(shot)) : null);
+        return outcome;
+    }
+}
@@ -0,0 +1,267 @@
+package battleship.config;
+
+import battleship.model.Fleet;
+import battleship.model.Grid;
+import battleship.model.GridFactory;
+import battleship.model.Ship;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Immutable snapshot of config.xml, read at run time so that the fleet and engine can
+ * be tuned without a rebuild, unlike the constants of the generated Configuration.
+ * Every game takes the snapshot current when it starts, with current, and keeps it;
+ * reload reads the file again and swaps in the new snapshot in one step, for games
+ * started after it. Settings are final fields, so reading them costs no more than
+ * reading a constant.
+ * <p>
+ * The file is the one named by the system property battleship.config, or else the
+ * config.xml on the class path. It is validated against config.xsd; settings missing
+ * from it take the values of the generated Configuration and the standard fleet.
+ */
+public final class RuntimeConfiguration {
+
+    /**
+     * System property naming the file to read instead of the config.xml on the class path.
+     */
+    public static final String FILE_PROPERTY = "battleship.config";
+
+    private static final String RESOURCE = "config.xml";
+    private static final String SCHEMA = "config.xsd";
+
+    private static volatile RuntimeConfiguration current;
+
+    public final boolean debugMode;
+    public final int gridSize;
+
+    /**
+     * Backend of new grids; null to pick one by the size of the grid, as GridFactory does.
+     */
+    public final Grid.Storage storage;
+    public final Grid.Placement placement;
+    public final Fleet fleet;
+
+    public RuntimeConfiguration(final boolean debugMode, final int gridSize, final Grid.Storage storage,
+                                final Grid.Placement placement, final Fleet fleet) {
+        if (fleet.getLongest() > gridSize) {
+            throw new IllegalArgumentException("Grid is not large enough to accommodate ships.");
+        }
+        this.debugMode = debugMode;
+        this.gridSize = gridSize;
+        this.storage = storage;
+        this.placement = placement;
+        this.fleet = fleet;
+    }
+
+    /**
+     * @return the snapshot for games starting now, read on first use
+     * @throws IllegalStateException if there is no snapshot yet and the file cannot be read
+     */
+    public static RuntimeConfiguration current() {
+        final RuntimeConfiguration configuration = current;
+        if (configuration != null) {
+            return configuration;
+        }
+        synchronized (RuntimeConfiguration.class) {
+            if (current == null) {
+                try {
+                    current = read();
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not read the configuration.", e);
+                }
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Read the file again and make it the snapshot for games starting from now on. If
+     * the file cannot be read or is invalid, the current snapshot is kept.
+     *
+     * @return the new snapshot
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid configuration
+     */
+    public static RuntimeConfiguration reload() throws IOException {
+        final RuntimeConfiguration configuration = read();
+        synchronized (RuntimeConfiguration.class) {
+            current = configuration;
+        }
+        return configuration;
+    }
+
+    /**
+     * Make the given snapshot current, for games starting from now on.
+     */
+    public static void set(final RuntimeConfiguration configuration) {
+        synchronized (RuntimeConfiguration.class) {
+            current = configuration;
+        }
+    }
+
+    private static RuntimeConfiguration read() throws IOException {
+        final String file = System.getProperty(FILE_PROPERTY);
+        if (file != null) {
+            return load(Paths.get(file));
+        }
+
+        final InputStream in = RuntimeConfiguration.class.getClassLoader().getResourceAsStream(RESOURCE);
+        if (in == null) {
+            throw new FileNotFoundException("No " + RESOURCE + " on the class path.");
+        }
+        try {
+            return load(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid configuration
+     */
+    public static RuntimeConfiguration load(final Path file) throws IOException {
+        final InputStream in = Files.newInputStream(file);
+        try {
+            return load(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @throws IOException              if the configuration cannot be read
+     * @throws IllegalArgumentException if it is not a valid configuration
+     */
+    public static RuntimeConfiguration load(final InputStream in) throws IOException {
+        final Document document;
+        try {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            document = factory.newDocumentBuilder().parse(in);
+            schema().newValidator().validate(new DOMSource(document));
+        } catch (SAXException e) {
+            throw new IllegalArgumentException("Invalid configuration: " + e.getMessage(), e);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+
+        boolean debugMode = Configuration.debugMode;
+        int gridSize = Configuration.gridSize;
+        final NodeList configs = document.getElementsByTagName("config");
+        for (int i = 0; i < configs.getLength(); i++) {
+            final Element config = (Element) configs.item(i);
+            final String name = text(config, "name");
+            final String value = text(config, "value");
+            if (name.equals("debugMode")) {
+                debugMode = Boolean.parseBoolean(value);
+            } else if (name.equals("gridSize")) {
+                try {
+                    gridSize = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid gridSize: " + value, e);
+                }
+            }
+        }
+
+        Grid.Storage storage = null;
+        Grid.Placement placement = Grid.Placement.UNIFORM;
+        final Element engine = (Element) document.getElementsByTagName("engine").item(0);
+        if (engine != null) {
+            final String storageName = engine.getAttribute("storage");
+            storage = storageName.isEmpty() || storageName.equals("AUTO") ? null : Grid.Storage.valueOf(storageName);
+            if (!engine.getAttribute("placement").isEmpty()) {
+                placement = Grid.Placement.valueOf(engine.getAttribute("placement"));
+            }
+        }
+
+        Fleet fleet = Fleet.STANDARD;
+        final NodeList ships = document.getElementsByTagName("ship");
+        if (ships.getLength() > 0) {
+            final Fleet.Builder builder = new Fleet.Builder();
+            for (int i = 0; i < ships.getLength(); i++) {
+                addShips(builder, (Element) ships.item(i));
+            }
+            fleet = builder.build();
+        }
+
+        return new RuntimeConfiguration(debugMode, gridSize, storage, placement, fleet);
+    }
+
+    /**
+     * Add the ships of a fleet entry. The length may be left out for a standard type of
+     * ship, which then has its standard length.
+     */
+    private static void addShips(final Fleet.Builder builder, final Element entry) {
+        final String name = entry.getAttribute("name");
+        final String length = entry.getAttribute("length");
+        final String count = entry.getAttribute("count");
+        final int shipLength;
+        if (length.isEmpty()) {
+            try {
+                shipLength = Ship.valueOf(name).getLength();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("No length given for ship " + name, e);
+            }
+        } else {
+            shipLength = parsePositive(length);
+        }
+        builder.add(name, shipLength, count.isEmpty() ? 1 : parsePositive(count));
+    }
+
+    /**
+     * @return an integer that the schema has checked is positive, but may not fit an int
+     */
+    private static int parsePositive(final String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Number too large: " + value, e);
+        }
+    }
+
+    private static String text(final Element parent, final String child) {
+        return parent.getElementsByTagName(child).item(0).getTextContent().trim();
+    }
+
+    private static Schema schema() throws SAXException {
+        final URL schema = RuntimeConfiguration.class.getClassLoader().getResource(SCHEMA);
+        if (schema == null) {
+            throw new IllegalStateException("No " + SCHEMA + " on the class path.");
+        }
+        return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schema);
+    }
+
+    /**
+     * Create an empty grid of the configured size for a new game.
+     */
+    public Grid newGrid() {
+        return newGrid(gridSize);
+    }
+
+    /**
+     * Create an empty grid of the given size, with the configured storage, fleet and placement.
+     *
+     * @throws IllegalArgumentException if the fleet does not fit a grid of this size
+     */
+    public Grid newGrid(final int size) {
+        return new Grid(size, storage == null ? GridFactory.storageFor(size) : storage, fleet, placement);
+    }
+}
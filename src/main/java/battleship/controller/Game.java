@@ -1,26 +1,63 @@
 package battleship.controller;
 
+import battleship.metrics.GameMetrics;
 import battleship.model.Coordinate;
 import battleship.model.Grid;
-import battleship.model.OffTheGridException;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
 import battleship.model.Ship;
+import battleship.view.AsyncUserInterface;
 import battleship.view.UserInterface;
 
-import java.util.EnumSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
- * Main controller of a battleship game.
+ * Main controller of a battleship game: a text adapter that reads shots from a
+ * user interface, fires them through a GameEngine and reports the results.
  */
 public class Game {
 
     private static final Logger log = Logger.getLogger(Game.class.getName());
 
-    private final Grid grid;
+    /**
+     * Rules for how many shots are fired each round.
+     */
+    public enum Mode {
+        /**
+         * One shot per round.
+         */
+        CLASSIC,
+
+        /**
+         * One shot per round for each ship still afloat, fired together as a salvo.
+         */
+        SALVO
+    }
+
+    private final GameEngine engine;
     private final UserInterface ui;
-    private final Set<Ship> reportedSinkings;
-    private int attempts;
+    private final Mode mode;
+    private final Labels labels;
+
+    /**
+     * Reused to format labels with a number.
+     */
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * Renders the unmasked grid for the log, only when it is enabled for FINE.
+     */
+    private final Supplier<String> trace = new Supplier<String>() {
+        @Override
+        public String get() {
+            return "\n" + engine.getGrid().toString();
+        }
+    };
 
     /**
      * Create a new game with a given grid and user interface
@@ -29,47 +66,297 @@ public class Game {
      * @param ui
      */
     public Game(final Grid grid, final UserInterface ui) {
+        this(grid, ui, Mode.CLASSIC);
+    }
+
+    /**
+     * Create a new game with a given grid, user interface and rules
+     *
+     * @param grid
+     * @param ui
+     * @param mode
+     */
+    public Game(final Grid grid, final UserInterface ui, final Mode mode) {
+        this(grid, ui, mode, null);
+    }
+
+    /**
+     * Create a new game whose ships are laid out with a given source of randomness, so
+     * that a seeded source reproduces the same game
+     *
+     * @param grid
+     * @param ui
+     * @param mode
+     * @param random source for the layout; null to use an unseeded one
+     */
+    public Game(final Grid grid, final UserInterface ui, final Mode mode, final RandomSource random) {
+        this(grid, ui, mode, random, Locale.ROOT);
+    }
+
+    /**
+     * Create a new game that talks to the player in the given locale
+     *
+     * @param grid
+     * @param ui
+     * @param mode
+     * @param random source for the layout; null to use an unseeded one
+     * @param locale of the labels shown to the player
+     * @throws IllegalArgumentException if salvo rules are asked of a grid too large for
+     *                                  packed coordinates
+     */
+    public Game(final Grid grid, final UserInterface ui, final Mode mode, final RandomSource random,
+                final Locale locale) {
+        if (mode == Mode.SALVO && !Coordinate.isPackable(grid.getSize())) {
+            throw new IllegalArgumentException("Salvo rules need a grid of at most " + Coordinate.PACKED_LIMIT
+                                                       + " squares a side.");
+        }
+        this.engine = new GameEngine(grid, random);
         this.ui = ui;
-        this.grid = grid;
-        grid.placeAllShipsRandomly();
-        reportedSinkings = EnumSet.noneOf(Ship.class);
+        this.mode = mode;
+        this.labels = Labels.forLocale(locale);
     }
 
     /**
      * Start this game and continue until win. No way to lose.
      */
     public void play() {
-        ui.out(Labels.get("Welcome"));
+        ui.out(labels.text("Welcome"));
+
+        while (!engine.isWon()) {
+            if (mode == Mode.SALVO) {
+                playOneSalvo();
+            } else {
+                playOneRound();
+            }
+        }
+
+        ui.out(labels.text("YouWon"));
+        ui.flush();
+    }
+
+    /**
+     * Start this game and continue until win without holding a thread while waiting
+     * for input. Input is requested with AsyncUserInterface.inAsync where the user
+     * interface supports it, and the game resumes on whichever thread completes it;
+     * input that is already available is consumed in a loop rather than by nesting
+     * callbacks, so the stack does not grow with the length of the game.
+     *
+     * @return Completed once the game is won, or exceptionally if input fails.
+     */
+    public CompletableFuture<Void> playAsync() {
+        final CompletableFuture<Void> won = new CompletableFuture<Void>();
+        try {
+            ui.out(labels.text("Welcome"));
+            resume(won, true);
+        } catch (RuntimeException e) {
+            won.completeExceptionally(e);
+        }
+        return won;
+    }
 
-        while (grid.areAnyShipsAfloat()) {
-            playOneRound();
+    /**
+     * Run rounds until input is not yet available or the game is won.
+     *
+     * @param newRound whether the next prompt starts a round, rather than asking
+     *                 again after input that could not be parsed
+     */
+    private void resume(final CompletableFuture<Void> won, boolean newRound) {
+        while (!engine.isWon()) {
+            if (newRound) {
+                displayGrid();
+            }
+
+            final int shots = engine.getShipsAfloat();
+            ui.out(mode == Mode.SALVO ? label("EnterSalvo", shots) : labels.text("EnterCoordinates"));
+            final CompletableFuture<String> input = ui instanceof AsyncUserInterface ?
+                    ((AsyncUserInterface) ui).inAsync() : CompletableFuture.completedFuture(ui.in());
+
+            if (!input.isDone()) {
+                input.whenComplete(new BiConsumer<String, Throwable>() {
+                    @Override
+                    public void accept(final String line, final Throwable failure) {
+                        if (failure != null) {
+                            won.completeExceptionally(failure);
+                            return;
+                        }
+                        try {
+                            resume(won, submit(line, shots));
+                        } catch (RuntimeException e) {
+                            won.completeExceptionally(e);
+                        }
+                    }
+                });
+                return;
+            }
+            newRound = submit(input.join(), shots);
         }
 
-        ui.out(Labels.get("YouWon"));
+        ui.out(labels.text("YouWon"));
+        ui.flush();
+        won.complete(null);
+    }
+
+    /**
+     * Play the rest of a round with the given input.
+     *
+     * @return true if the input was played; false if it could not be parsed
+     */
+    private boolean submit(final String input, final int shots) {
+        if (mode == Mode.SALVO) {
+            final int[] salvo = parseSalvo(input, shots);
+            if (salvo != null) {
+                fire(salvo);
+            }
+            return salvo != null;
+        }
+
+        final Coordinate coord = parseCoordinate(input);
+        if (coord != null) {
+            fire(coord);
+        }
+        return coord != null;
     }
 
     /**
      * Play one round. Exposed for testing only.
      */
     void playOneRound() {
-        log.fine("\n" + grid.toString());
-        ui.out("\n" + grid.display(true));
+        displayGrid();
+        fire(getNextCoordinate());
+    }
 
-        final Coordinate coord = getNextCoordinate();
-        try {
-            ui.out(grid.strike(new Coordinate(coord.getX(), coord.getY())) ? Labels.get("Hit") : Labels.get("Miss"));
-            ui.out(Labels.get("Attempts", ++attempts));
-        } catch (OffTheGridException e) {
-            ui.out(Labels.get("OutOfBoundsError"));
+    /**
+     * Fire one shot and report its result.
+     */
+    private void fire(final Coordinate coord) {
+        final Outcome outcome = engine.fire(coord.getX(), coord.getY());
+
+        final long start = GameMetrics.start();
+        if (outcome == Outcome.OFF_GRID) {
+            ui.out(labels.text("OutOfBoundsError"));
+        } else {
+            ui.out(outcome.isHit() ? labels.text("Hit") : labels.text("Miss"));
+            ui.out(label("Attempts", engine.getAttempts()));
+        }
+
+        final Ship sunkenShip = engine.getLastSunk();
+        if (sunkenShip != null) {
+            ui.out(labels.format("SunkShip", shipName(sunkenShip)));
+        }
+        GameMetrics.phase(GameMetrics.Phase.REPORT, start);
+    }
+
+    /**
+     * Play one round of salvo rules. Exposed for testing only.
+     */
+    void playOneSalvo() {
+        displayGrid();
+        fire(getNextSalvo(engine.getShipsAfloat()));
+    }
+
+    /**
+     * Fire a salvo and report its results.
+     */
+    private void fire(final int[] salvo) {
+        final Outcome[] outcomes = new Outcome[salvo.length];
+        final List<Ship> newlySunkenShips = engine.fireAll(salvo, outcomes);
+
+        final long start = GameMetrics.start();
+        for (Outcome outcome : outcomes) {
+            if (outcome == Outcome.OFF_GRID) {
+                ui.out(labels.text("OutOfBoundsError"));
+            } else {
+                ui.out(outcome.isHit() ? labels.text("Hit") : labels.text("Miss"));
+            }
+        }
+        ui.out(label("Attempts", engine.getAttempts()));
+
+        for (Ship ship : newlySunkenShips) {
+            ui.out(labels.format("SunkShip", shipName(ship)));
+        }
+        GameMetrics.phase(GameMetrics.Phase.REPORT, start);
+    }
+
+    /**
+     * @return the label naming a ship of a standard type, or else the name of the ship
+     */
+    private String shipName(final Ship ship) {
+        return ship.getLabelKey() == null ? ship.getName() : labels.text(ship.getLabelKey());
+    }
+
+    /**
+     * @return the label with argument 0 filled in with the given number
+     */
+    private String label(final String labelKey, final long number) {
+        line.setLength(0);
+        labels.appendTo(line, labelKey, number);
+        return line.toString();
+    }
+
+    private void displayGrid() {
+        final long start = GameMetrics.start();
+        log.fine(trace);
+        ui.showGrid(engine.getGrid());
+        GameMetrics.phase(GameMetrics.Phase.RENDER, start);
+    }
+
+    /**
+     * Prompt the user for a salvo until received.
+     *
+     * @return Non-null salvo of packed coordinates from user.
+     */
+    private int[] getNextSalvo(final int shots) {
+        int[] salvo = null;
+        while (salvo == null) {
+            salvo = promptForSalvo(shots);
         }
+        return salvo;
+    }
+
+    /**
+     * Prompt user for a salvo of up to the given number of space-separated coordinates.
+     *
+     * @return Coordinates packed with Coordinate.pack; else will return null.
+     */
+    int[] promptForSalvo(final int shots) {
+        ui.out(label("EnterSalvo", shots));
+        return parseSalvo(ui.in(), shots);
+    }
+
+    /**
+     * Parse a salvo of up to the given number of space-separated coordinates.
+     *
+     * @return Coordinates packed with Coordinate.pack; else will return null.
+     */
+    private int[] parseSalvo(final String input, final int shots) {
+        final long start = GameMetrics.start();
+        try {
+            final String[] rawSalvo = input.trim().split("\\s+");
+
+            if (rawSalvo.length > shots) {
+                ui.out(labels.text("InvalidNumberOfCoordinates"));
+                return null;
+            }
 
-        final Set<Ship> sunkenShips = grid.getSunkenShips();
-        if (!reportedSinkings.containsAll(sunkenShips)) {
-            sunkenShips.removeAll(reportedSinkings);
-            assert sunkenShips.size() == 1;
-            final Ship newlySunkenShip = (Ship) sunkenShips.toArray()[0];
-            ui.out(Labels.get("SunkShip", Labels.get(newlySunkenShip.getLabelKey())));
-            reportedSinkings.addAll(sunkenShips);
+            final int[] salvo = new int[rawSalvo.length];
+            for (int i = 0; i < rawSalvo.length; i++) {
+                final String[] rawCoors = rawSalvo[i].split(",");
+                if (rawCoors.length != 2) {
+                    ui.out(labels.text("InvalidNumberOfCoordinates"));
+                    return null;
+                }
+
+                try {
+                    salvo[i] = Coordinate.pack(Integer.parseInt(rawCoors[0]), Integer.parseInt(rawCoors[1]));
+                } catch (NumberFormatException e) {
+                    ui.out(labels.text("InvalidCoordinates"));
+                    return null;
+                }
+            }
+
+            return salvo;
+        } finally {
+            GameMetrics.phase(GameMetrics.Phase.PARSE, start);
         }
     }
 
@@ -92,21 +379,35 @@ public class Game {
      * @return Properly constructed coordinate; else will return null.
      */
     Coordinate promptForCoordinate() {
-        ui.out(Labels.get("EnterCoordinates"));
-        final String[] rawCoors = ui.in().split(",");
-
-        if (rawCoors.length != 2) {
-            ui.out(Labels.get("InvalidNumberOfCoordinates"));
-            return null;
-        }
+        ui.out(labels.text("EnterCoordinates"));
+        return parseCoordinate(ui.in());
+    }
 
+    /**
+     * Parse a coordinate entered as x,y.
+     *
+     * @return Properly constructed coordinate; else will return null.
+     */
+    private Coordinate parseCoordinate(final String input) {
+        final long start = GameMetrics.start();
         try {
-            return new Coordinate(Integer.valueOf(rawCoors[0]), Integer.valueOf(rawCoors[1]));
-        } catch (NumberFormatException e) {
-            ui.out(Labels.get("InvalidCoordinates"));
-        }
+            final String[] rawCoors = input.split(",");
+
+            if (rawCoors.length != 2) {
+                ui.out(labels.text("InvalidNumberOfCoordinates"));
+                return null;
+            }
 
-        return null;
+            try {
+                return Coordinate.valueOf(Integer.parseInt(rawCoors[0]), Integer.parseInt(rawCoors[1]));
+            } catch (NumberFormatException e) {
+                ui.out(labels.text("InvalidCoordinates"));
+            }
+
+            return null;
+        } finally {
+            GameMetrics.phase(GameMetrics.Phase.PARSE, start);
+        }
     }
 
 }
@@ -0,0 +1,195 @@
+package battleship.controller;
+
+import battleship.metrics.GameMetrics;
+import battleship.model.Coordinate;
+import battleship.model.Grid;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
+import battleship.model.Ship;
+import battleship.model.SnapshotFormat;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Rules of a battleship game with no text input or output, for bots, servers and
+ * other embedders that drive a game programmatically. Shots are given as
+ * coordinates and answered with an Outcome; the state of the game is read back
+ * through the getters. Game is the console adapter on top of this engine.
+ */
+public class GameEngine {
+
+    private final Grid grid;
+    private int attempts;
+    private Ship lastSunk;
+
+    /**
+     * Whether this game is counted in GameMetrics as in progress, from its start or
+     * resumption until it is won or abandoned.
+     */
+    private boolean inProgress;
+
+    /**
+     * Create a new engine over the given grid, laying out its ships randomly.
+     *
+     * @param random source for the layout; null to use an unseeded one
+     */
+    public GameEngine(final Grid grid, final RandomSource random) {
+        this.grid = grid;
+        if (random == null) {
+            grid.placeAllShipsRandomly();
+        } else {
+            grid.placeAllShipsRandomly(random);
+        }
+        GameMetrics.layout(grid.getLayoutAttempts(), grid.getLayoutRejections());
+        GameMetrics.gameStarted();
+        inProgress = true;
+    }
+
+    private GameEngine(final Grid grid, final int attempts) {
+        this.grid = grid;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Restore a game saved with save, onto a new grid of the default storage and the
+     * fleet of the saved game.
+     *
+     * @param in buffer positioned at the snapshot; advanced past it
+     * @throws IllegalArgumentException if the buffer holds no snapshot of a supported version
+     */
+    public static GameEngine restore(final ByteBuffer in) {
+        final Grid grid = new Grid(SnapshotFormat.readSize(in), Grid.DEFAULT_STORAGE, SnapshotFormat.readFleet(in),
+                                   Grid.Placement.UNIFORM);
+        final int attempts = SnapshotFormat.read(in, grid);
+        final GameEngine engine = new GameEngine(grid, attempts);
+        if (!engine.isWon()) {
+            GameMetrics.gameResumed();
+            engine.inProgress = true;
+        }
+        return engine;
+    }
+
+    private void finished() {
+        if (inProgress) {
+            inProgress = false;
+            GameMetrics.gameFinished(attempts);
+        }
+    }
+
+    /**
+     * Stop counting this game as in progress, as when a player abandons it or it is
+     * suspended and dropped. Does nothing to a game that is won or already abandoned.
+     */
+    public void abandon() {
+        if (inProgress) {
+            inProgress = false;
+            GameMetrics.gameAbandoned();
+        }
+    }
+
+    /**
+     * Save this game in SnapshotFormat, taking SnapshotFormat.size(size, fleet) bytes for
+     * the size and fleet of its grid.
+     *
+     * @param out buffer positioned where the snapshot is to be written; advanced past it
+     */
+    public void save(final ByteBuffer out) {
+        SnapshotFormat.write(grid, attempts, out);
+    }
+
+    /**
+     * Fire one shot. Every shot on the grid counts as an attempt, including repeats.
+     *
+     * @return the outcome of the shot; OFF_GRID if the coordinate is not on the grid
+     */
+    public Outcome fire(final int x, final int y) {
+        final long start = GameMetrics.start();
+        final Outcome outcome = grid.tryStrike(x, y);
+        if (outcome != Outcome.OFF_GRID) {
+            attempts++;
+        }
+        lastSunk = outcome == Outcome.SUNK ? grid.getRevealedShip(x, y) : null;
+        GameMetrics.phase(GameMetrics.Phase.STRIKE, start);
+
+        GameMetrics.shot(outcome);
+        if (outcome == Outcome.SUNK && isWon()) {
+            finished();
+        }
+        return outcome;
+    }
+
+    /**
+     * Fire one shot at a coordinate packed with Coordinate.pack.
+     *
+     * @throws IllegalStateException if the grid is too large for packed coordinates
+     * @see #fire(int, int)
+     */
+    public Outcome fire(final int packedCoord) {
+        if (!Coordinate.isPackable(grid.getSize())) {
+            throw new IllegalStateException("Grid is too large for packed coordinates.");
+        }
+        if (packedCoord == Coordinate.INVALID) {
+            lastSunk = null;
+            return Outcome.OFF_GRID;
+        }
+        return fire(Coordinate.unpackX(packedCoord), Coordinate.unpackY(packedCoord));
+    }
+
+    /**
+     * Fire a salvo of shots together, as with Grid.strikeAll.
+     *
+     * @param packedCoords coordinates packed with Coordinate.pack
+     * @param outcomes     receives the outcome of each shot, at the same index
+     * @return the ships sunk by this salvo, in the order they sank
+     * @throws IllegalStateException if the grid is too large for packed coordinates
+     */
+    public List<Ship> fireAll(final int[] packedCoords, final Outcome[] outcomes) {
+        final long start = GameMetrics.start();
+        final List<Ship> sunk = grid.strikeAll(packedCoords, outcomes);
+        for (int i = 0; i < packedCoords.length; i++) {
+            if (outcomes[i] != Outcome.OFF_GRID) {
+                attempts++;
+            }
+        }
+        lastSunk = null;
+        GameMetrics.phase(GameMetrics.Phase.STRIKE, start);
+
+        for (Outcome outcome : outcomes) {
+            GameMetrics.shot(outcome);
+        }
+        if (!sunk.isEmpty() && isWon()) {
+            finished();
+        }
+        return sunk;
+    }
+
+    /**
+     * @return the ship sunk by the last call to fire, or null if it sank none
+     */
+    public Ship getLastSunk() {
+        return lastSunk;
+    }
+
+    /**
+     * @return number of shots fired on the grid so far
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return number of ships not yet sunk, which is also the size of a salvo
+     */
+    public int getShipsAfloat() {
+        return grid.getShipsAfloat();
+    }
+
+    public boolean isWon() {
+        return !grid.areAnyShipsAfloat();
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+}
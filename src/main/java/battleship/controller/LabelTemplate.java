@@ -0,0 +1,255 @@
+package battleship.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A labels.properties template parsed once, for one locale, into literal text and
+ * argument indexes, producing the same text as MessageFormat. A template without
+ * arguments is kept as a single interned string. Whole numbers are written digit by
+ * digit in the locale's format, so formatting into an Appendable allocates nothing;
+ * templates with format types, such as {0,number,#.#}, are left to MessageFormat.
+ * Templates are immutable and may be shared between threads.
+ */
+final class LabelTemplate {
+
+    private final Locale locale;
+
+    /**
+     * Literal text before each argument, and after the last one.
+     */
+    private final String[] literals;
+    private final int[] arguments;
+
+    /**
+     * The whole text of a template without arguments.
+     */
+    private final String constant;
+
+    /**
+     * Formats templates this class does not compile; cloned for each use.
+     */
+    private final MessageFormat fallback;
+
+    private final char zeroDigit;
+    private final char groupingSeparator;
+    private final int groupingSize;
+    private final boolean plainDigits;
+
+    LabelTemplate(final String pattern, final Locale locale) {
+        this.locale = locale;
+
+        final List<String> literals = new ArrayList<String>();
+        final List<Integer> arguments = new ArrayList<Integer>();
+        final StringBuilder text = new StringBuilder();
+        boolean quoted = false;
+        boolean compiled = true;
+
+        for (int i = 0; i < pattern.length() && compiled; i++) {
+            final char c = pattern.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                    text.append('\'');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == '{' && !quoted) {
+                final int end = pattern.indexOf('}', i);
+                final int index = end < 0 ? -1 : parseIndex(pattern, i + 1, end);
+                if (index < 0) {
+                    compiled = false;
+                } else {
+                    literals.add(text.toString());
+                    arguments.add(index);
+                    text.setLength(0);
+                    i = end;
+                }
+            } else {
+                text.append(c);
+            }
+        }
+        literals.add(text.toString());
+
+        if (!compiled) {
+            // also rejects malformed templates up front, as MessageFormat would on use
+            this.fallback = new MessageFormat(pattern, locale);
+            this.literals = null;
+            this.arguments = null;
+            this.constant = null;
+        } else {
+            this.fallback = null;
+            this.literals = literals.toArray(new String[literals.size()]);
+            this.arguments = new int[arguments.size()];
+            for (int i = 0; i < this.arguments.length; i++) {
+                this.arguments[i] = arguments.get(i);
+            }
+            this.constant = this.arguments.length == 0 ? this.literals[0].intern() : null;
+        }
+
+        final NumberFormat numbers = NumberFormat.getInstance(locale);
+        if (numbers instanceof DecimalFormat) {
+            final DecimalFormat decimal = (DecimalFormat) numbers;
+            final DecimalFormatSymbols symbols = decimal.getDecimalFormatSymbols();
+            this.zeroDigit = symbols.getZeroDigit();
+            this.groupingSeparator = symbols.getGroupingSeparator();
+            this.groupingSize = decimal.isGroupingUsed() ? decimal.getGroupingSize() : 0;
+            this.plainDigits = decimal.getPositivePrefix().isEmpty() && decimal.getPositiveSuffix().isEmpty();
+        } else {
+            this.zeroDigit = '0';
+            this.groupingSeparator = ',';
+            this.groupingSize = 0;
+            this.plainDigits = false;
+        }
+    }
+
+    /**
+     * @return the index of a plain argument such as {0}; -1 for anything else
+     */
+    private static int parseIndex(final String pattern, final int start, final int end) {
+        if (start == end || end - start > 4) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            final char c = pattern.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + c - '0';
+        }
+        return index;
+    }
+
+    /**
+     * @return the text of a template without arguments, or null if it has arguments
+     */
+    String getConstant() {
+        return constant;
+    }
+
+    String format(final Object[] args) {
+        if (constant != null) {
+            return constant;
+        }
+        final StringBuilder out = new StringBuilder();
+        appendTo(out, args);
+        return out.toString();
+    }
+
+    void appendTo(final Appendable out, final Object[] args) {
+        try {
+            if (fallback != null) {
+                out.append(((MessageFormat) fallback.clone()).format(args));
+                return;
+            }
+            for (int i = 0; i < arguments.length; i++) {
+                out.append(literals[i]);
+                final int index = arguments[i];
+                if (args == null || index >= args.length) {
+                    missing(out, index);
+                } else {
+                    argument(out, args[index]);
+                }
+            }
+            out.append(literals[arguments.length]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Format with only argument 0 given.
+     */
+    void appendTo(final Appendable out, final Object arg) {
+        if (fallback != null) {
+            appendTo(out, new Object[] {arg});
+            return;
+        }
+        try {
+            for (int i = 0; i < arguments.length; i++) {
+                out.append(literals[i]);
+                if (arguments[i] == 0) {
+                    argument(out, arg);
+                } else {
+                    missing(out, arguments[i]);
+                }
+            }
+            out.append(literals[arguments.length]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Format with only argument 0 given, as a whole number, without boxing it.
+     */
+    void appendTo(final Appendable out, final long arg) {
+        if (fallback != null || !plainDigits || arg < 0) {
+            appendTo(out, (Object) arg);
+            return;
+        }
+        try {
+            for (int i = 0; i < arguments.length; i++) {
+                out.append(literals[i]);
+                if (arguments[i] == 0) {
+                    number(out, arg);
+                } else {
+                    missing(out, arguments[i]);
+                }
+            }
+            out.append(literals[arguments.length]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void argument(final Appendable out, final Object arg) throws IOException {
+        if (arg instanceof CharSequence) {
+            out.append((CharSequence) arg);
+        } else if (plainDigits && (arg instanceof Integer || arg instanceof Long || arg instanceof Short
+                || arg instanceof Byte) && ((Number) arg).longValue() >= 0) {
+            number(out, ((Number) arg).longValue());
+        } else if (arg instanceof Number) {
+            out.append(NumberFormat.getInstance(locale).format(arg));
+        } else if (arg instanceof Date) {
+            out.append(DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, locale).format(arg));
+        } else {
+            out.append(String.valueOf(arg));
+        }
+    }
+
+    /**
+     * Append a non-negative number in the locale's digits and grouping.
+     */
+    private void number(final Appendable out, final long value) throws IOException {
+        long divisor = 1;
+        int digits = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+            digits++;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) (zeroDigit + value / divisor % 10));
+            digits--;
+            if (groupingSize > 0 && digits > 0 && digits % groupingSize == 0) {
+                out.append(groupingSeparator);
+            }
+        }
+    }
+
+    private static void missing(final Appendable out, final int index) throws IOException {
+        out.append('{');
+        out.append(Integer.toString(index));
+        out.append('}');
+    }
+}
@@ -1,29 +1,119 @@
 package battleship.controller;
 
-import java.io.IOException;
-import java.text.MessageFormat;
-import java.util.PropertyResourceBundle;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-class Labels {
-    private static final ResourceBundle labelResource;
+/**
+ * Text shown to the player, from labels.properties and its translations such as
+ * labels_de.properties. Every template of a locale is compiled once, on first use of
+ * the locale, so that labels without arguments are returned as the same string each
+ * time and labels with arguments are formatted without parsing their template again.
+ * The labels of each locale are shared, so sessions in different locales may format
+ * concurrently.
+ */
+public final class Labels {
 
-    static {
-        try {
-            labelResource = new PropertyResourceBundle(ClassLoader.getSystemResourceAsStream("labels.properties"));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private static final ConcurrentMap<Locale, Labels> LOCALES = new ConcurrentHashMap<Locale, Labels>();
+
+    /**
+     * Labels of labels.properties itself, used when no locale is given.
+     */
+    private static final Labels ROOT = forLocale(Locale.ROOT);
+
+    private final Locale locale;
+    private final Map<String, LabelTemplate> templates;
+
+    private Labels(final Locale locale) {
+        final ResourceBundle bundle = ResourceBundle.getBundle(
+                "labels", locale, Labels.class.getClassLoader(),
+                ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+
+        final Map<String, LabelTemplate> templates = new HashMap<String, LabelTemplate>();
+        for (Enumeration<String> keys = bundle.getKeys(); keys.hasMoreElements(); ) {
+            final String key = keys.nextElement();
+            templates.put(key, new LabelTemplate(bundle.getString(key), locale));
         }
+        this.locale = locale;
+        this.templates = Collections.unmodifiableMap(templates);
+    }
+
+    /**
+     * @return the labels of the given locale, falling back to labels.properties for
+     *         labels it does not translate
+     */
+    public static Labels forLocale(final Locale locale) {
+        final Labels labels = LOCALES.get(locale);
+        if (labels != null) {
+            return labels;
+        }
+        final Labels created = new Labels(locale);
+        final Labels raced = LOCALES.putIfAbsent(locale, created);
+        return raced != null ? raced : created;
     }
 
     public static String get(final String labelKey) {
-        return get(labelKey, (String) null);
+        return ROOT.text(labelKey);
     }
 
     public static String get(final String labelKey, Object... args) {
-        return MessageFormat.format(labelResource.getString(labelKey), args);
+        return ROOT.format(labelKey, args);
+    }
+
+    public Locale getLocale() {
+        return locale;
     }
 
-    private Labels() {
+    /**
+     * @return the label; for a label without arguments always the same string
+     * @throws MissingResourceException if there is no such label
+     */
+    public String text(final String labelKey) {
+        final LabelTemplate template = template(labelKey);
+        final String constant = template.getConstant();
+        return constant != null ? constant : template.format(null);
+    }
+
+    /**
+     * @return the label with its arguments filled in as MessageFormat would
+     * @throws MissingResourceException if there is no such label
+     */
+    public String format(final String labelKey, final Object... args) {
+        return template(labelKey).format(args);
+    }
+
+    /**
+     * Append the label with its arguments filled in.
+     *
+     * @throws MissingResourceException if there is no such label
+     * @throws java.io.UncheckedIOException if the Appendable fails
+     */
+    public void appendTo(final Appendable out, final String labelKey, final Object... args) {
+        template(labelKey).appendTo(out, args);
+    }
+
+    /**
+     * Append the label with argument 0 filled in with a whole number. Unlike the other
+     * forms this neither boxes the number nor allocates an array of arguments.
+     *
+     * @throws MissingResourceException if there is no such label
+     * @throws java.io.UncheckedIOException if the Appendable fails
+     */
+    public void appendTo(final Appendable out, final String labelKey, final long number) {
+        template(labelKey).appendTo(out, number);
+    }
+
+    private LabelTemplate template(final String labelKey) {
+        final LabelTemplate template = templates.get(labelKey);
+        if (template == null) {
+            throw new MissingResourceException("No label " + labelKey, Labels.class.getName(), labelKey);
+        }
+        return template;
     }
 }
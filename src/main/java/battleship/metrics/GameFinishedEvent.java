@@ -0,0 +1,21 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a game won.
+ */
+@Name("battleship.GameFinished")
+@Label("Game Finished")
+@Category("Battleship")
+@Description("A game won, with the shots it took")
+@StackTrace(false)
+class GameFinishedEvent extends jdk.jfr.Event {
+
+    @Label("Attempts")
+    int attempts;
+}
@@ -0,0 +1,329 @@
+package battleship.metrics;
+
+import battleship.model.Outcome;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and per-phase latency histograms of every game in the process, exposed as
+ * the MBean battleship:type=GameMetrics and as flight recorder events.
+ * <p>
+ * Instrumentation is switched on by starting the JVM with -Dbattleship.metrics=true.
+ * The static methods called from the game check the constant ENABLED first, so when
+ * metrics are off the JIT compiles them away and the game pays nothing, not even the
+ * nanoTime calls.
+ */
+public class GameMetrics implements GameMetricsMBean {
+
+    private static final Logger log = Logger.getLogger(GameMetrics.class.getName());
+
+    public static final boolean ENABLED = Boolean.getBoolean("battleship.metrics");
+
+    /**
+     * Phases of a round of a game.
+     */
+    public enum Phase {
+        /**
+         * Rendering the grid for the player.
+         */
+        RENDER,
+
+        /**
+         * Parsing the player's input into coordinates.
+         */
+        PARSE,
+
+        /**
+         * Striking the grid.
+         */
+        STRIKE,
+
+        /**
+         * Formatting the results of a strike for the player.
+         */
+        REPORT
+    }
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                                 .registerMBean(INSTANCE, new ObjectName("battleship:type=GameMetrics"));
+            } catch (JMException e) {
+                log.log(Level.WARNING, "Could not register game metrics", e);
+            }
+        }
+    }
+
+    private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+    private final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder gamesInProgress = new LongAdder();
+    private final LongAdder layouts = new LongAdder();
+    private final LongAdder placementRetries = new LongAdder();
+    private final LongAdder placementRejections = new LongAdder();
+
+    GameMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return the metrics of this process, which are only recorded when ENABLED
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the start time of a phase, to pass to phase; 0 when metrics are off
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record a phase that began at the given time and has just ended.
+     */
+    public static void phase(final Phase phase, final long start) {
+        if (ENABLED) {
+            INSTANCE.recordPhase(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record the outcome of one shot.
+     */
+    public static void shot(final Outcome outcome) {
+        if (ENABLED) {
+            INSTANCE.recordShot(outcome);
+        }
+    }
+
+    /**
+     * Record a random layout of a fleet that took the given number of attempts and
+     * rejected the given number of draws.
+     */
+    public static void layout(final int attempts, final long rejections) {
+        if (ENABLED) {
+            INSTANCE.recordLayout(attempts, rejections);
+        }
+    }
+
+    public static void gameStarted() {
+        if (ENABLED) {
+            INSTANCE.recordGameStarted();
+        }
+    }
+
+    /**
+     * Record a game won in the given number of shots.
+     */
+    public static void gameFinished(final int attempts) {
+        if (ENABLED) {
+            INSTANCE.recordGameFinished(attempts);
+        }
+    }
+
+    /**
+     * Record a suspended game resumed, in progress again until finished or abandoned.
+     */
+    public static void gameResumed() {
+        if (ENABLED) {
+            INSTANCE.recordGameResumed();
+        }
+    }
+
+    /**
+     * Record a game in progress dropped before it was won.
+     */
+    public static void gameAbandoned() {
+        if (ENABLED) {
+            INSTANCE.recordGameAbandoned();
+        }
+    }
+
+    void recordPhase(final Phase phase, final long nanos) {
+        phases[phase.ordinal()].record(nanos);
+
+        final PhaseEvent event = new PhaseEvent();
+        if (event.shouldCommit()) {
+            event.phase = phase.name();
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+
+    void recordShot(final Outcome outcome) {
+        outcomes[outcome.ordinal()].increment();
+    }
+
+    void recordLayout(final int attempts, final long rejections) {
+        layouts.increment();
+        placementRetries.add(Math.max(0, attempts - 1));
+        placementRejections.add(rejections);
+
+        final LayoutEvent event = new LayoutEvent();
+        if (event.shouldCommit()) {
+            event.attempts = attempts;
+            event.rejections = rejections;
+            event.commit();
+        }
+    }
+
+    void recordGameStarted() {
+        gamesStarted.increment();
+        gamesInProgress.increment();
+    }
+
+    void recordGameResumed() {
+        gamesInProgress.increment();
+    }
+
+    void recordGameAbandoned() {
+        gamesInProgress.decrement();
+    }
+
+    void recordGameFinished(final int attempts) {
+        gamesFinished.increment();
+        gamesInProgress.decrement();
+
+        final GameFinishedEvent event = new GameFinishedEvent();
+        if (event.shouldCommit()) {
+            event.attempts = attempts;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the latencies of the given phase
+     */
+    public LatencyHistogram getLatencies(final Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesFinished() {
+        return gamesFinished.sum();
+    }
+
+    /**
+     * @return games started or resumed and then neither won nor abandoned
+     */
+    @Override
+    public long getGamesInProgress() {
+        return gamesInProgress.sum();
+    }
+
+    @Override
+    public long getHits() {
+        return outcomes[Outcome.HIT.ordinal()].sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return outcomes[Outcome.MISS.ordinal()].sum();
+    }
+
+    @Override
+    public long getSunk() {
+        return outcomes[Outcome.SUNK.ordinal()].sum();
+    }
+
+    @Override
+    public long getRepeats() {
+        return outcomes[Outcome.REPEAT.ordinal()].sum();
+    }
+
+    @Override
+    public long getOffGrid() {
+        return outcomes[Outcome.OFF_GRID.ordinal()].sum();
+    }
+
+    @Override
+    public long getLayouts() {
+        return layouts.sum();
+    }
+
+    @Override
+    public long getPlacementRetries() {
+        return placementRetries.sum();
+    }
+
+    @Override
+    public long getPlacementRejections() {
+        return placementRejections.sum();
+    }
+
+    @Override
+    public double getRenderMeanNanos() {
+        return getLatencies(Phase.RENDER).getMean();
+    }
+
+    @Override
+    public long getRender99thPercentileNanos() {
+        return getLatencies(Phase.RENDER).getPercentile(99);
+    }
+
+    @Override
+    public double getParseMeanNanos() {
+        return getLatencies(Phase.PARSE).getMean();
+    }
+
+    @Override
+    public long getParse99thPercentileNanos() {
+        return getLatencies(Phase.PARSE).getPercentile(99);
+    }
+
+    @Override
+    public double getStrikeMeanNanos() {
+        return getLatencies(Phase.STRIKE).getMean();
+    }
+
+    @Override
+    public long getStrike99thPercentileNanos() {
+        return getLatencies(Phase.STRIKE).getPercentile(99);
+    }
+
+    @Override
+    public double getReportMeanNanos() {
+        return getLatencies(Phase.REPORT).getMean();
+    }
+
+    @Override
+    public long getReport99thPercentileNanos() {
+        return getLatencies(Phase.REPORT).getPercentile(99);
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram phase : phases) {
+            phase.reset();
+        }
+        for (LongAdder outcome : outcomes) {
+            outcome.reset();
+        }
+        gamesStarted.reset();
+        gamesFinished.reset();
+        layouts.reset();
+        placementRetries.reset();
+        placementRejections.reset();
+    }
+}
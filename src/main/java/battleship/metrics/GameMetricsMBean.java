@@ -0,0 +1,51 @@
+package battleship.metrics;
+
+/**
+ * Management interface of GameMetrics, registered as battleship:type=GameMetrics.
+ * Latencies are in nanoseconds; percentiles are the upper bound of a power-of-two bucket.
+ */
+public interface GameMetricsMBean {
+
+    long getGamesStarted();
+
+    long getGamesFinished();
+
+    long getGamesInProgress();
+
+    long getHits();
+
+    long getMisses();
+
+    long getSunk();
+
+    long getRepeats();
+
+    long getOffGrid();
+
+    long getLayouts();
+
+    long getPlacementRetries();
+
+    long getPlacementRejections();
+
+    double getRenderMeanNanos();
+
+    long getRender99thPercentileNanos();
+
+    double getParseMeanNanos();
+
+    long getParse99thPercentileNanos();
+
+    double getStrikeMeanNanos();
+
+    long getStrike99thPercentileNanos();
+
+    double getReportMeanNanos();
+
+    long getReport99thPercentileNanos();
+
+    /**
+     * Zero every counter and histogram, except games in progress.
+     */
+    void reset();
+}
@@ -0,0 +1,85 @@
+package battleship.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Histogram of latencies in power-of-two buckets of nanoseconds, which any number of
+ * threads may record into without contending on a single counter.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(new LongBinaryOperator() {
+        @Override
+        public long applyAsLong(final long left, final long right) {
+            return Math.max(left, right);
+        }
+    }, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos latency to record; negative values count as zero
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return mean latency in nanoseconds, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percent between 0 and 100
+     * @return upper bound of the bucket holding the given percentile, in nanoseconds,
+     *         or 0 if nothing has been recorded
+     */
+    public long getPercentile(final double percent) {
+        final long count = getCount();
+        final long rank = Math.max(1, (long) Math.ceil(count * percent / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(i == Long.SIZE ? Long.MAX_VALUE : (1L << i) - 1, getMax());
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        sum.reset();
+        max.reset();
+    }
+}
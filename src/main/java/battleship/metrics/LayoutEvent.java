@@ -0,0 +1,24 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for the random layout of a fleet.
+ */
+@Name("battleship.Layout")
+@Label("Fleet Layout")
+@Category("Battleship")
+@Description("Random layout of a fleet, with the attempts it took and the draws it rejected")
+@StackTrace(false)
+class LayoutEvent extends jdk.jfr.Event {
+
+    @Label("Attempts")
+    int attempts;
+
+    @Label("Rejections")
+    long rejections;
+}
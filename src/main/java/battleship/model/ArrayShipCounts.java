@@ -0,0 +1,83 @@
+package battleship.model;
+
+import java.util.Arrays;
+
+/**
+ * Ship counts in plain arrays, for a grid struck by one thread at a time.
+ */
+final class ArrayShipCounts implements ShipCounts {
+
+    /**
+     * Squares of each ship not yet hit, and a bit for each ship that has been sunk, by ship id.
+     */
+    private final int[] unhitSquares;
+    private final long[] sunkenShips;
+    private int shipsAfloat;
+
+    /**
+     * @param shipCount number of ships in the fleet of the grid
+     */
+    ArrayShipCounts(final int shipCount) {
+        this.unhitSquares = new int[shipCount];
+        this.sunkenShips = new long[(shipCount + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    @Override
+    public void placed(final int ship, final int length) {
+        if (unhitSquares[ship] == 0) {
+            shipsAfloat++;
+        }
+        unhitSquares[ship] += length;
+    }
+
+    @Override
+    public void removed(final int ship, final int length) {
+        unhitSquares[ship] -= length;
+        if (unhitSquares[ship] == 0) {
+            shipsAfloat--;
+        }
+    }
+
+    @Override
+    public boolean hit(final int ship) {
+        if (--unhitSquares[ship] == 0) {
+            shipsAfloat--;
+            sunkenShips[ship >>> 6] |= 1L << ship;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isSunk(final int ship) {
+        return (sunkenShips[ship >>> 6] & 1L << ship) != 0;
+    }
+
+    @Override
+    public int nextSunk(final int ship) {
+        int word = ship >>> 6;
+        if (word >= sunkenShips.length) {
+            return -1;
+        }
+        long bits = sunkenShips[word] & -1L << ship;
+        while (bits == 0) {
+            if (++word == sunkenShips.length) {
+                return -1;
+            }
+            bits = sunkenShips[word];
+        }
+        return word << 6 | Long.numberOfTrailingZeros(bits);
+    }
+
+    @Override
+    public int afloat() {
+        return shipsAfloat;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(unhitSquares, 0);
+        Arrays.fill(sunkenShips, 0L);
+        shipsAfloat = 0;
+    }
+}
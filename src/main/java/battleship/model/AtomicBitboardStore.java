@@ -0,0 +1,113 @@
+package battleship.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bitboard whose struck plane is updated with compare-and-set, so that any
+ * number of threads may strike concurrently and each cell changes status exactly
+ * once. Placement and clearing are not thread-safe and must be finished before
+ * strikes start.
+ */
+final class AtomicBitboardStore implements CellStore {
+
+    private final int size;
+    private final AtomicLongArray occupied;
+    private final AtomicLongArray struck;
+    private final PackedShipIds ships;
+
+    /**
+     * @param size      of each side of the grid
+     * @param shipCount number of ships in the fleet of the grid
+     */
+    AtomicBitboardStore(final int size, final int shipCount) {
+        if ((long) size * size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid is too large for bitboard storage.");
+        }
+
+        final int squares = size * size;
+        this.size = size;
+        this.occupied = new AtomicLongArray((squares + Long.SIZE - 1) / Long.SIZE);
+        this.struck = new AtomicLongArray(occupied.length());
+        this.ships = new PackedShipIds(squares, shipCount);
+    }
+
+    @Override
+    public CellStatus getStatus(final int x, final int y) {
+        final int i = y * size + x;
+        return status(isSet(occupied, i), isSet(struck, i));
+    }
+
+    @Override
+    public void setStatus(final int x, final int y, final CellStatus status) {
+        final int i = y * size + x;
+        final boolean isOccupied = status == CellStatus.PLACED || status == CellStatus.HIT;
+        final boolean isStruck = status == CellStatus.HIT || status == CellStatus.MISSED;
+        update(occupied, i, isOccupied);
+        update(struck, i, isStruck);
+    }
+
+    @Override
+    public int getShip(final int x, final int y) {
+        final int i = y * size + x;
+        if (!isSet(occupied, i)) {
+            return NO_SHIP;
+        }
+        return ships.get(i);
+    }
+
+    @Override
+    public void setShip(final int x, final int y, final int ship) {
+        ships.set(y * size + x, ship);
+    }
+
+    /**
+     * Set the struck bit of a cell with compare-and-set. Of all the threads striking
+     * the same cell, only one sees it as EMPTY or PLACED; the rest see MISSED or HIT.
+     */
+    @Override
+    public CellStatus strike(final int x, final int y) {
+        final int i = y * size + x;
+        final int word = i >>> 6;
+        final long bit = 1L << i;
+        final boolean isOccupied = isSet(occupied, i);
+
+        long previous;
+        do {
+            previous = struck.get(word);
+            if ((previous & bit) != 0) {
+                return status(isOccupied, true);
+            }
+        } while (!struck.compareAndSet(word, previous, previous | bit));
+
+        return status(isOccupied, false);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < occupied.length(); i++) {
+            occupied.set(i, 0L);
+            struck.set(i, 0L);
+        }
+        ships.clear();
+    }
+
+    private static CellStatus status(final boolean isOccupied, final boolean isStruck) {
+        if (isStruck) {
+            return isOccupied ? CellStatus.HIT : CellStatus.MISSED;
+        }
+        return isOccupied ? CellStatus.PLACED : CellStatus.EMPTY;
+    }
+
+    private static boolean isSet(final AtomicLongArray plane, final int i) {
+        return (plane.get(i >>> 6) & (1L << i)) != 0;
+    }
+
+    private static void update(final AtomicLongArray plane, final int i, final boolean value) {
+        final int word = i >>> 6;
+        final long bit = 1L << i;
+        long previous;
+        do {
+            previous = plane.get(word);
+        } while (!plane.compareAndSet(word, previous, value ? previous | bit : previous & ~bit));
+    }
+}
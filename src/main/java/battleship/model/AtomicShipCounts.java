@@ -0,0 +1,94 @@
+package battleship.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ship counts that any number of threads may hit at once. Each ship's unhit squares
+ * are counted down atomically, so exactly one hit sees a ship sink. Placing, removing
+ * and clearing must be finished before hits start.
+ */
+final class AtomicShipCounts implements ShipCounts {
+
+    /**
+     * Squares of each ship not yet hit, and a bit for each ship that has been sunk, by ship id.
+     */
+    private final AtomicIntegerArray unhitSquares;
+    private final AtomicLongArray sunkenShips;
+    private final AtomicInteger shipsAfloat = new AtomicInteger();
+
+    /**
+     * @param shipCount number of ships in the fleet of the grid
+     */
+    AtomicShipCounts(final int shipCount) {
+        this.unhitSquares = new AtomicIntegerArray(shipCount);
+        this.sunkenShips = new AtomicLongArray((shipCount + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    @Override
+    public void placed(final int ship, final int length) {
+        if (unhitSquares.getAndAdd(ship, length) == 0) {
+            shipsAfloat.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void removed(final int ship, final int length) {
+        if (unhitSquares.addAndGet(ship, -length) == 0) {
+            shipsAfloat.decrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean hit(final int ship) {
+        if (unhitSquares.decrementAndGet(ship) != 0) {
+            return false;
+        }
+
+        shipsAfloat.decrementAndGet();
+        final int word = ship >>> 6;
+        long sunk;
+        do {
+            sunk = sunkenShips.get(word);
+        } while (!sunkenShips.compareAndSet(word, sunk, sunk | 1L << ship));
+        return true;
+    }
+
+    @Override
+    public boolean isSunk(final int ship) {
+        return (sunkenShips.get(ship >>> 6) & 1L << ship) != 0;
+    }
+
+    @Override
+    public int nextSunk(final int ship) {
+        int word = ship >>> 6;
+        if (word >= sunkenShips.length()) {
+            return -1;
+        }
+        long bits = sunkenShips.get(word) & -1L << ship;
+        while (bits == 0) {
+            if (++word == sunkenShips.length()) {
+                return -1;
+            }
+            bits = sunkenShips.get(word);
+        }
+        return word << 6 | Long.numberOfTrailingZeros(bits);
+    }
+
+    @Override
+    public int afloat() {
+        return shipsAfloat.get();
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < unhitSquares.length(); i++) {
+            unhitSquares.set(i, 0);
+        }
+        for (int i = 0; i < sunkenShips.length(); i++) {
+            sunkenShips.set(i, 0L);
+        }
+        shipsAfloat.set(0);
+    }
+}
@@ -0,0 +1,106 @@
+package battleship.model;
+
+import java.util.Arrays;
+
+/**
+ * Stores cell state in primitive bit planes rather than one object per square.
+ * Squares are indexed row by row (y * size + x). Two planes encode the status
+ * of a square: whether a ship occupies it and whether it has been struck.
+ * The ship on an occupied square is kept as its id in PackedShipIds.
+ */
+final class BitboardStore implements CellStore {
+
+    private final int size;
+    private final long[] occupied;
+    private final long[] struck;
+    private final PackedShipIds ships;
+
+    /**
+     * @param size      of each side of the grid
+     * @param shipCount number of ships in the fleet of the grid
+     */
+    BitboardStore(final int size, final int shipCount) {
+        if ((long) size * size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid is too large for bitboard storage.");
+        }
+
+        final int squares = size * size;
+        this.size = size;
+        this.occupied = new long[(squares + Long.SIZE - 1) / Long.SIZE];
+        this.struck = new long[occupied.length];
+        this.ships = new PackedShipIds(squares, shipCount);
+    }
+
+    @Override
+    public CellStatus getStatus(final int x, final int y) {
+        final int i = y * size + x;
+        final boolean isOccupied = isSet(occupied, i);
+        if (isSet(struck, i)) {
+            return isOccupied ? CellStatus.HIT : CellStatus.MISSED;
+        }
+        return isOccupied ? CellStatus.PLACED : CellStatus.EMPTY;
+    }
+
+    @Override
+    public void setStatus(final int x, final int y, final CellStatus status) {
+        final int i = y * size + x;
+        switch (status) {
+            case EMPTY:
+                clear(occupied, i);
+                clear(struck, i);
+                break;
+            case PLACED:
+                set(occupied, i);
+                clear(struck, i);
+                break;
+            case HIT:
+                set(occupied, i);
+                set(struck, i);
+                break;
+            case MISSED:
+                clear(occupied, i);
+                set(struck, i);
+                break;
+        }
+    }
+
+    @Override
+    public int getShip(final int x, final int y) {
+        final int i = y * size + x;
+        if (!isSet(occupied, i)) {
+            return NO_SHIP;
+        }
+        return ships.get(i);
+    }
+
+    @Override
+    public void setShip(final int x, final int y, final int ship) {
+        ships.set(y * size + x, ship);
+    }
+
+    @Override
+    public CellStatus strike(final int x, final int y) {
+        final CellStatus status = getStatus(x, y);
+        set(struck, y * size + x);
+        return status;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(occupied, 0L);
+        Arrays.fill(struck, 0L);
+        ships.clear();
+    }
+
+    private static boolean isSet(final long[] plane, final int i) {
+        return (plane[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void set(final long[] plane, final int i) {
+        plane[i >>> 6] |= 1L << i;
+    }
+
+    private static void clear(final long[] plane, final int i) {
+        plane[i >>> 6] &= ~(1L << i);
+    }
+}
@@ -0,0 +1,67 @@
+package battleship.model;
+
+/**
+ * Stores one Cell instance per square of the grid, referring to the ship on it.
+ */
+final class CellArrayStore implements CellStore {
+
+    private final Cell[][] cells;
+    private final Fleet fleet;
+
+    /**
+     * @param size  of each side of the grid
+     * @param fleet of the grid, whose ships the cells refer to
+     */
+    CellArrayStore(final int size, final Fleet fleet) {
+        this.fleet = fleet;
+        this.cells = new Cell[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                cells[x][y] = new Cell();
+            }
+        }
+    }
+
+    @Override
+    public CellStatus getStatus(final int x, final int y) {
+        return cells[x][y].getStatus();
+    }
+
+    @Override
+    public void setStatus(final int x, final int y, final CellStatus status) {
+        cells[x][y].setStatus(status);
+    }
+
+    @Override
+    public int getShip(final int x, final int y) {
+        final Ship ship = cells[x][y].getShip();
+        return ship == null ? NO_SHIP : ship.id;
+    }
+
+    @Override
+    public void setShip(final int x, final int y, final int ship) {
+        cells[x][y].setShip(ship == NO_SHIP ? null : fleet.ships[ship]);
+    }
+
+    @Override
+    public CellStatus strike(final int x, final int y) {
+        final Cell cell = cells[x][y];
+        final CellStatus status = cell.getStatus();
+        if (status == CellStatus.EMPTY) {
+            cell.setStatus(CellStatus.MISSED);
+        } else if (status == CellStatus.PLACED) {
+            cell.setStatus(CellStatus.HIT);
+        }
+        return status;
+    }
+
+    @Override
+    public void clear() {
+        for (Cell[] column : cells) {
+            for (Cell cell : column) {
+                cell.setStatus(CellStatus.EMPTY);
+                cell.setShip(null);
+            }
+        }
+    }
+}
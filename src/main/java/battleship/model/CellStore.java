@@ -0,0 +1,37 @@
+package battleship.model;
+
+/**
+ * Backing storage for the status and ship information of every cell on a grid.
+ * Ships are held by their id in the fleet of the grid.
+ * Coordinates handed to a store are always within the bounds of its grid.
+ */
+interface CellStore {
+
+    int NO_SHIP = -1;
+
+    CellStatus getStatus(int x, int y);
+
+    void setStatus(int x, int y, CellStatus status);
+
+    /**
+     * @return the id of the ship on a cell, or NO_SHIP
+     */
+    int getShip(int x, int y);
+
+    /**
+     * @param ship id of the ship on the cell, or NO_SHIP
+     */
+    void setShip(int x, int y, int ship);
+
+    /**
+     * Mark a cell as struck: EMPTY becomes MISSED and PLACED becomes HIT.
+     *
+     * @return the status of the cell before this strike
+     */
+    CellStatus strike(int x, int y);
+
+    /**
+     * Return every cell to an empty status with no ship.
+     */
+    void clear();
+}
@@ -0,0 +1,47 @@
+package battleship.model;
+
+/**
+ * A grid that any number of threads may strike at once without locking. Each
+ * cell is struck with compare-and-set on a bitboard and each ship's unhit squares
+ * are counted down atomically, so every hit and every sinking is reported to exactly
+ * one striker. Rendered frames are not cached, so displaying the grid never races a
+ * strike. Ships must be placed, and the grid reset, before strikes start.
+ */
+public class ConcurrentGrid extends Grid {
+
+    /**
+     * Create a concurrent Grid of default size.
+     */
+    public ConcurrentGrid() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Create a square concurrent grid of a specified size.
+     *
+     * @param size of each side
+     */
+    public ConcurrentGrid(final int size) {
+        this(size, Fleet.STANDARD);
+    }
+
+    /**
+     * Create a square concurrent grid of a specified size for the given fleet.
+     *
+     * @param size  of each side
+     * @param fleet laid out by placeAllShipsRandomly
+     */
+    public ConcurrentGrid(final int size, final Fleet fleet) {
+        super(size, new AtomicBitboardStore(size, fleet.size()), new AtomicShipCounts(fleet.size()), fleet,
+              Placement.UNIFORM);
+    }
+
+    /**
+     * Strikes from many threads would race on patching a cached frame, so every
+     * display renders afresh from the bitboard instead.
+     */
+    @Override
+    boolean cachesFrames() {
+        return false;
+    }
+}
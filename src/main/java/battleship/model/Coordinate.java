@@ -4,6 +4,33 @@ package battleship.model;
  * Two-dimensional (x,y) coordinate
  */
 public final class Coordinate {
+
+    /**
+     * Exclusive upper bound of each component of a packed coordinate, and so the largest
+     * size of grid whose squares can all be packed. Methods taking packed coordinates
+     * reject larger grids, which only sparse storage makes practical; address their
+     * squares by x and y instead.
+     */
+    public static final int PACKED_LIMIT = 1 << 15;
+
+    /**
+     * Packed value of a coordinate that cannot be packed, and so is off any packable grid.
+     */
+    public static final int INVALID = -1;
+
+    private static final int Y_MASK = PACKED_LIMIT - 1;
+
+    /**
+     * Exclusive upper bound of each component of the coordinates interned by valueOf.
+     */
+    static final int CACHE_LIMIT = 128;
+
+    /**
+     * Interned coordinates, filled on first use. Coordinates are immutable, so a
+     * race between two threads filling the same slot is harmless.
+     */
+    private static final Coordinate[] CACHE = new Coordinate[CACHE_LIMIT * CACHE_LIMIT];
+
     private final int x;
     private final int y;
 
@@ -12,6 +39,33 @@ public final class Coordinate {
         this.y = y;
     }
 
+    /**
+     * Returns a coordinate for (x,y), sharing one instance per coordinate for the
+     * small coordinates that cover common grid sizes.
+     */
+    public static Coordinate valueOf(final int x, final int y) {
+        if (x < 0 || x >= CACHE_LIMIT || y < 0 || y >= CACHE_LIMIT) {
+            return new Coordinate(x, y);
+        }
+
+        final int i = y * CACHE_LIMIT + x;
+        Coordinate coord = CACHE[i];
+        if (coord == null) {
+            coord = new Coordinate(x, y);
+            CACHE[i] = coord;
+        }
+        return coord;
+    }
+
+    /**
+     * Returns the coordinate held in a packed int.
+     *
+     * @param packed coordinate packed with pack; must not be INVALID
+     */
+    public static Coordinate valueOf(final int packed) {
+        return valueOf(unpackX(packed), unpackY(packed));
+    }
+
     public int getX() {
         return x;
     }
@@ -20,6 +74,40 @@ public final class Coordinate {
         return y;
     }
 
+    /**
+     * Pack a coordinate into a single non-negative int, x in the upper and y in the lower 15 bits.
+     *
+     * @return the packed coordinate, or INVALID if either component is outside [0, PACKED_LIMIT)
+     */
+    public static int pack(final int x, final int y) {
+        if (x < 0 || x >= PACKED_LIMIT || y < 0 || y >= PACKED_LIMIT) {
+            return INVALID;
+        }
+        return x << 15 | y;
+    }
+
+    /**
+     * @return whether every square of a grid of the given size can be packed
+     */
+    public static boolean isPackable(final int gridSize) {
+        return gridSize <= PACKED_LIMIT;
+    }
+
+    /**
+     * @return this coordinate packed into a single int, or INVALID if it cannot be packed
+     */
+    public int pack() {
+        return pack(x, y);
+    }
+
+    public static int unpackX(final int packed) {
+        return packed >>> 15;
+    }
+
+    public static int unpackY(final int packed) {
+        return packed & Y_MASK;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
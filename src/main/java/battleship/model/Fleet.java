@@ -0,0 +1,238 @@
+package battleship.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ships laid out on a grid at the start of a game. A fleet may hold any number of
+ * ships, of any names and lengths, and several of the same name. Its ships are
+ * numbered from zero in the order they were added, and grids keep their state of each
+ * ship in primitive arrays indexed by that id.
+ */
+public final class Fleet {
+
+    /**
+     * Most ships in a fleet, as many as a ship id can hold in a move journal.
+     */
+    public static final int MAX_SHIPS = 1 << 23;
+
+    /**
+     * Most characters in the name of a ship.
+     */
+    public static final int MAX_NAME = 16;
+
+    /**
+     * One ship of every standard type.
+     */
+    public static final Fleet STANDARD = new Fleet(Ship.values());
+
+    /**
+     * Ships of this fleet by id.
+     */
+    final Ship[] ships;
+
+    /**
+     * Ids of the ships, longest first, the order in which they are laid out.
+     */
+    final int[] layoutOrder;
+    private final int longest;
+    private final long squares;
+
+    private Fleet(final Ship[] ships) {
+        this.ships = ships;
+
+        // sort by descending length, then by id, as one primitive key per ship
+        final long[] keys = new long[ships.length];
+        long squares = 0;
+        for (int id = 0; id < ships.length; id++) {
+            keys[id] = (long) (Integer.MAX_VALUE - ships[id].length) << 32 | id;
+            squares += ships[id].length;
+        }
+        Arrays.sort(keys);
+        this.layoutOrder = new int[ships.length];
+        for (int i = 0; i < keys.length; i++) {
+            layoutOrder[i] = (int) keys[i];
+        }
+        this.longest = ships[layoutOrder[0]].length;
+        this.squares = squares;
+    }
+
+    /**
+     * @return a fleet of one ship of each of the given standard types, in the order given
+     * @throws IllegalArgumentException if no ships are given
+     */
+    public static Fleet of(final Ship... types) {
+        final Builder builder = new Builder();
+        for (Ship type : types) {
+            builder.add(type, 1);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the number of ships in this fleet, one more than the largest id
+     */
+    public int size() {
+        return ships.length;
+    }
+
+    /**
+     * @return the ship of the given id
+     * @throws IndexOutOfBoundsException if there is no ship of that id
+     */
+    public Ship get(final int id) {
+        return ships[id];
+    }
+
+    /**
+     * @return the ships of this fleet, in the order of their ids
+     */
+    public List<Ship> getShips() {
+        return Collections.unmodifiableList(Arrays.asList(ships));
+    }
+
+    /**
+     * @return the length of the longest ship, which the grid must fit
+     */
+    public int getLongest() {
+        return longest;
+    }
+
+    /**
+     * @return the squares covered by the whole fleet
+     */
+    public long getSquares() {
+        return squares;
+    }
+
+    /**
+     * @return whether the given ship is the ship of its id in this fleet
+     */
+    boolean contains(final Ship ship) {
+        return ship.id < ships.length && ships[ship.id] == ship;
+    }
+
+    /**
+     * Fleets are equal if their ships of each id have the same name and length.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Fleet) || ((Fleet) o).ships.length != ships.length) {
+            return false;
+        }
+        final Ship[] others = ((Fleet) o).ships;
+        for (int id = 0; id < ships.length; id++) {
+            if (ships[id].length != others[id].length || !ships[id].getName().equals(others[id].getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (Ship ship : ships) {
+            hash = 31 * (31 * hash + ship.getName().hashCode()) + ship.length;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder out = new StringBuilder("[");
+        for (int id = 0; id < ships.length; ) {
+            int end = id + 1;
+            while (end < ships.length && ships[end].length == ships[id].length
+                    && ships[end].getName().equals(ships[id].getName())) {
+                end++;
+            }
+            out.append(id == 0 ? "" : ", ").append(ships[id].getName()).append('(').append(ships[id].length).append(')');
+            if (end - id > 1) {
+                out.append(" x").append(end - id);
+            }
+            id = end;
+        }
+        return out.append(']').toString();
+    }
+
+    /**
+     * Builds a fleet from runs of ships of the same name and length. A fleet built with
+     * exactly the ships of the standard fleet is the standard fleet, whose ships are the
+     * standard types.
+     */
+    public static final class Builder {
+
+        private final List<String> names = new ArrayList<String>();
+        private final List<Integer> lengths = new ArrayList<Integer>();
+        private final List<Integer> counts = new ArrayList<Integer>();
+        private long size;
+
+        /**
+         * Add ships of a standard type.
+         */
+        public Builder add(final Ship type, final int count) {
+            return add(type.getName(), type.length, count);
+        }
+
+        /**
+         * Add ships of the given name and length, taking the next ids.
+         *
+         * @param name   of up to MAX_NAME letters, digits and underscores
+         * @param length squares covered by each ship
+         * @param count  number of ships to add
+         * @throws IllegalArgumentException if the name is not valid, the length or count is not
+         *                                  positive or the fleet would have more than MAX_SHIPS ships
+         */
+        public Builder add(final String name, final int length, final int count) {
+            if (name.isEmpty() || name.length() > MAX_NAME) {
+                throw new IllegalArgumentException("Name of a ship must have 1 to " + MAX_NAME + " characters: " + name);
+            }
+            for (int i = 0; i < name.length(); i++) {
+                final char c = name.charAt(i);
+                if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '_')) {
+                    throw new IllegalArgumentException("Name of a ship must be letters, digits and underscores: "
+                                                               + name);
+                }
+            }
+            if (length < 1) {
+                throw new IllegalArgumentException("Length of a ship must be positive.");
+            }
+            if (count < 1 || size + count > MAX_SHIPS) {
+                throw new IllegalArgumentException("Fleet must have 1 to " + MAX_SHIPS + " ships.");
+            }
+
+            names.add(name);
+            lengths.add(length);
+            counts.add(count);
+            size += count;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if no ships were added
+         */
+        public Fleet build() {
+            if (size == 0) {
+                throw new IllegalArgumentException("Fleet has no ships.");
+            }
+
+            final Ship[] ships = new Ship[(int) size];
+            int id = 0;
+            for (int run = 0; run < names.size(); run++) {
+                final String name = names.get(run);
+                final Ship type = Ship.type(name);
+                for (int i = 0; i < counts.get(run); i++, id++) {
+                    ships[id] = new Ship(id, name, lengths.get(run), type == null ? null : type.getLabelKey());
+                }
+            }
+            final Fleet fleet = new Fleet(ships);
+            return fleet.equals(STANDARD) ? STANDARD : fleet;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package battleship.model;
+
+/**
+ * The maximal runs of unoccupied cells along one row or column of a grid,
+ * kept as sorted, disjoint [start, end) intervals.
+ */
+final class FreeRuns {
+
+    private int[] starts;
+    private int[] ends;
+    private int count;
+
+    FreeRuns(final int length) {
+        starts = new int[]{0};
+        ends = new int[]{length};
+        count = 1;
+    }
+
+    /**
+     * @return the number of positions at which a ship of the given length fits entirely in a free run
+     */
+    long placements(final int length) {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            final int positions = ends[i] - starts[i] - length + 1;
+            if (positions > 0) {
+                total += positions;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @param k index in [0, placements(length))
+     * @return the starting position of the k-th placement for a ship of the given length
+     */
+    int position(final int length, long k) {
+        for (int i = 0; i < count; i++) {
+            final int positions = ends[i] - starts[i] - length + 1;
+            if (positions > 0) {
+                if (k < positions) {
+                    return starts[i] + (int) k;
+                }
+                k -= positions;
+            }
+        }
+        throw new IllegalArgumentException("No such placement: " + k);
+    }
+
+    /**
+     * Mark [from, to) as occupied. The span must lie within a single free run.
+     */
+    void occupy(final int from, final int to) {
+        int i = 0;
+        while (i < count && ends[i] < to) {
+            i++;
+        }
+        if (i == count || starts[i] > from) {
+            throw new IllegalArgumentException("Span is not free: [" + from + "," + to + ")");
+        }
+
+        final int start = starts[i];
+        final int end = ends[i];
+        final boolean keepLeft = start < from;
+        final boolean keepRight = to < end;
+
+        if (keepLeft && keepRight) {
+            ensureCapacity(count + 1);
+            System.arraycopy(starts, i + 1, starts, i + 2, count - i - 1);
+            System.arraycopy(ends, i + 1, ends, i + 2, count - i - 1);
+            ends[i] = from;
+            starts[i + 1] = to;
+            ends[i + 1] = end;
+            count++;
+        } else if (keepLeft) {
+            ends[i] = from;
+        } else if (keepRight) {
+            starts[i] = to;
+        } else {
+            System.arraycopy(starts, i + 1, starts, i, count - i - 1);
+            System.arraycopy(ends, i + 1, ends, i, count - i - 1);
+            count--;
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > starts.length) {
+            final int[] newStarts = new int[Math.max(capacity, starts.length * 2)];
+            final int[] newEnds = new int[newStarts.length];
+            System.arraycopy(starts, 0, newStarts, 0, count);
+            System.arraycopy(ends, 0, newEnds, 0, count);
+            starts = newStarts;
+            ends = newEnds;
+        }
+    }
+}
@@ -2,19 +2,121 @@ package battleship.model;
 
 import battleship.config.Configuration;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * A standard battleship game grid of specified size. If no size is provided,
- * grid will default to DEFAULT_SIZE. Each cell on the Grid is populated
- * with a Cell instance, which maintains the state of ship placement and and hits.
+ * grid will default to DEFAULT_SIZE. The state of ship placement and hits for
+ * each cell on the Grid is kept in a CellStore chosen by the Grid's Storage.
  */
 public class Grid implements Iterable<Cell> {
     public static final int DEFAULT_SIZE = Configuration.gridSize;
 
+    /**
+     * Backends available to hold the cells of a grid.
+     */
+    public enum Storage {
+        /**
+         * One Cell object per square.
+         */
+        CELLS {
+            @Override
+            CellStore create(final int size, final Fleet fleet) {
+                return new CellArrayStore(size, fleet);
+            }
+        },
+
+        /**
+         * Primitive bit planes, a few bits per square.
+         */
+        BITBOARD {
+            @Override
+            CellStore create(final int size, final Fleet fleet) {
+                return new BitboardStore(size, fleet.size());
+            }
+        },
+
+        /**
+         * Hash map of the cells that are not empty; for huge, mostly-empty boards.
+         */
+        SPARSE {
+            @Override
+            CellStore create(final int size, final Fleet fleet) {
+                return new SparseStore(size);
+            }
+        };
+
+        abstract CellStore create(int size, Fleet fleet);
+    }
+
+    public static final Storage DEFAULT_STORAGE = Storage.BITBOARD;
+
+    /**
+     * Algorithms that lay out a fleet at random. Both lay the ships out in turn, drawing
+     * each uniformly from the placements left legal by the ships before it, so they give
+     * the same distribution of layouts; they differ only in cost. Whole layouts are not
+     * all equally likely.
+     */
+    public enum Placement {
+        /**
+         * Draw each ship from its legal placements, counted along every row and column.
+         */
+        UNIFORM {
+            @Override
+            int layout(final PlacementEngine engine, final int[] lengths, final int[] xs, final int[] ys,
+                       final Orientation[] orientations) {
+                return engine.layout(lengths, xs, ys, orientations);
+            }
+        },
+
+        /**
+         * Draw any placement of each ship until one is legal; cheaper on large, sparse grids.
+         */
+        REJECTION {
+            @Override
+            int layout(final PlacementEngine engine, final int[] lengths, final int[] xs, final int[] ys,
+                       final Orientation[] orientations) {
+                return engine.layoutByRejection(lengths, xs, ys, orientations);
+            }
+        };
+
+        abstract int layout(PlacementEngine engine, int[] lengths, int[] xs, int[] ys, Orientation[] orientations);
+    }
+
     private final int size;
-    private final Cell[][] cells;
-    private final Set<Ship> sunkenShips;
+    private final CellStore cells;
+    private final Fleet fleet;
+    private final Placement placement;
+
+    private final ShipCounts counts;
+
+    /**
+     * Where each ship lies, by ship id: its origin's column in the upper 32 bits, then
+     * its origin's row and its orientation in the lowest bit; NOT_PLACED if it is not on
+     * this grid. Every square of a ship follows from these, so finding, revealing or
+     * removing a ship takes time in its length rather than in the size of the grid.
+     */
+    private final long[] placements;
+    private static final long NOT_PLACED = -1L;
+
+    /**
+     * Cost of the last layout by placeAllShipsRandomly: the attempts it took, starting
+     * again from an empty grid each time, and the draws it rejected.
+     */
+    private int layoutAttempts;
+    private long layoutRejections;
+    private static final Orientation[] ORIENTATIONS = Orientation.values();
+    private MoveListener listener;
+
+    /**
+     * Rendered rows of this grid, built on first display and then patched as cells
+     * change; null until then, and always null if frames are not cached.
+     */
+    private Frames frames;
 
     /**
      * Create a Grid of default size.
@@ -29,63 +131,142 @@ public class Grid implements Iterable<Cell> {
      * @param size of each side
      */
     public Grid(final int size) {
-        for(Ship ship : Ship.values()) {
-            if(ship.length > size) {
-                throw new IllegalArgumentException("Grid is not large enough to accommodate ships.");
-            }
+        this(size, DEFAULT_STORAGE);
+    }
+
+    /**
+     * Create a square grid of a specified size backed by the given storage.
+     *
+     * @param size    of each side
+     * @param storage backend holding the cells
+     */
+    public Grid(final int size, final Storage storage) {
+        this(size, storage, Fleet.STANDARD, Placement.UNIFORM);
+    }
+
+    /**
+     * Create a square grid of a specified size backed by the given storage, on which
+     * the given fleet is laid out with the given algorithm.
+     *
+     * @param size      of each side
+     * @param storage   backend holding the cells
+     * @param fleet     laid out by placeAllShipsRandomly
+     * @param placement algorithm laying out the fleet
+     */
+    public Grid(final int size, final Storage storage, final Fleet fleet, final Placement placement) {
+        this(size, storage.create(size, fleet), fleet, placement);
+    }
+
+    Grid(final int size, final CellStore cells) {
+        this(size, cells, Fleet.STANDARD, Placement.UNIFORM);
+    }
+
+    Grid(final int size, final CellStore cells, final Fleet fleet, final Placement placement) {
+        this(size, cells, new ArrayShipCounts(fleet.size()), fleet, placement);
+    }
+
+    Grid(final int size, final CellStore cells, final ShipCounts counts, final Fleet fleet,
+         final Placement placement) {
+        if (fleet.getLongest() > size) {
+            throw new IllegalArgumentException("Grid is not large enough to accommodate ships.");
         }
 
         this.size = size;
-        this.cells = new Cell[size][size];
-        this.sunkenShips = EnumSet.noneOf(Ship.class);
-        reset();
+        this.cells = cells;
+        this.fleet = fleet;
+        this.placement = placement;
+        this.counts = counts;
+        this.placements = new long[fleet.size()];
+        Arrays.fill(placements, NOT_PLACED);
+    }
+
+    /**
+     * @return the number of squares along each side of this grid
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the ships laid out by placeAllShipsRandomly
+     */
+    public Fleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * @return the number of attempts the last placeAllShipsRandomly took, starting again
+     *         from an empty grid each time; 0 if the fleet has not been laid out at random
+     */
+    public int getLayoutAttempts() {
+        return layoutAttempts;
     }
 
     /**
-     * Reset the grid with all new cells.
+     * @return the number of draws the last placeAllShipsRandomly rejected as overlapping
+     *         or off the grid, which only Placement.REJECTION makes
+     */
+    public long getLayoutRejections() {
+        return layoutRejections;
+    }
+
+    /**
+     * Tell a listener of every ship placed and square struck from now on.
+     *
+     * @param listener to tell, or null for none
+     */
+    public void setMoveListener(final MoveListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Reset the grid to empty cells.
      */
     void reset() {
-        final CellIterator iterator = iterator();
-        while(iterator.hasNext()) {
-            iterator.next();
-            iterator.apply(new Transformation<Cell>() {
-                @Override
-                public Cell transform(Cell cell) {
-                    return new Cell();
-                }
-            });
+        cells.clear();
+        final Frames frames = this.frames;
+        if (frames != null) {
+            fillFrames(frames);
         }
-
-        sunkenShips.clear();
+        counts.clear();
+        Arrays.fill(placements, NOT_PLACED);
     }
 
     /**
-     * Place all the ships randomly on this grid
+     * Clear this grid and place all the ships randomly on it, in either orientation,
+     * using the calling thread's own generator so that threads never contend.
      */
     public void placeAllShipsRandomly() {
-        final int MAX_RETRIES = 10;
-        int retries = 0;
-
-        for (final Ship ship : Ship.values()) {
-            boolean successfullyPlaced = false;
-            while (!successfullyPlaced) {
-                try {
-                    final int x = (int) (Math.random() * size);
-                    final int y = (int) (Math.random() * size);
-                    place(ship, new Coordinate(x, y));
-                    successfullyPlaced = true;
-                } catch (OverlappingException e) {
-                    // we're overlapping another ship. let's try again.
-                    if (retries++ > MAX_RETRIES) {
-                        reset();
-                    }
-                } catch (OffTheGridException e) {
-                    // we're off the grid. let's try again.
-                    if (retries++ > MAX_RETRIES) {
-                        reset();
-                    }
-                }
-            }
+        placeAllShipsRandomly(new JdkRandomSource(ThreadLocalRandom.current()));
+    }
+
+    /**
+     * Clear this grid and place all the ships on it, drawing each ship uniformly
+     * from its legal placements with the given source of randomness.
+     *
+     * @param random source of randomness; seed it to reproduce a layout
+     * @throws IllegalStateException if the fleet could not be fitted on this grid
+     */
+    public void placeAllShipsRandomly(final RandomSource random) {
+        reset();
+
+        // longest ships first, while there is most room for them
+        final int[] order = fleet.layoutOrder;
+        final int[] lengths = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            lengths[i] = fleet.ships[order[i]].length;
+        }
+
+        final int[] xs = new int[order.length];
+        final int[] ys = new int[order.length];
+        final Orientation[] orientations = new Orientation[order.length];
+        final PlacementEngine engine = new PlacementEngine(size, random);
+        layoutAttempts = placement.layout(engine, lengths, xs, ys, orientations);
+        layoutRejections = engine.getRejections();
+
+        for (int i = 0; i < order.length; i++) {
+            final Outcome outcome = tryPlace(fleet.ships[order[i]], xs[i], ys[i], orientations[i]);
+            assert outcome == Outcome.PLACED;
         }
     }
 
@@ -94,39 +275,182 @@ public class Grid implements Iterable<Cell> {
      *
      * @param ship   Type of ship to place
      * @param origin Left-most coordinate of this ship
-     * @throws OverlappingException Placement of this ship would overlap with another ship. Automatically rolls back partial placement.
-     * @throws OffTheGridException  Placement of this ship goes off this grid. Automatically rolls back partial placement.
+     * @throws OverlappingException Placement of this ship would overlap with another ship. Nothing is placed.
+     * @throws OffTheGridException  Placement of this ship goes off this grid. Nothing is placed.
      */
     public void place(final Ship ship, final Coordinate origin) throws OverlappingException, OffTheGridException {
-        int x = origin.getX();
-        int y = origin.getY();
-
-        final Set<Coordinate> coordsPlaced = new HashSet<Coordinate>();
-        //noinspection ForLoopThatDoesntUseLoopVariable
-        for (int xMax = x + ship.length; x < xMax; x++) {
-            final Cell cell;
-            try {
-                cell = cells[x][y];
-            } catch (ArrayIndexOutOfBoundsException e) {
-                rollback(coordsPlaced);
+        place(ship, origin, Orientation.HORIZONTAL);
+    }
+
+    /**
+     * Place a ship starting at an origin and going in the given orientation on this grid.
+     *
+     * @param ship        Type of ship to place
+     * @param origin      Left-most or top-most coordinate of this ship
+     * @param orientation Direction in which the ship extends from its origin
+     * @throws OverlappingException Placement of this ship would overlap with another ship. Nothing is placed.
+     * @throws OffTheGridException  Placement of this ship goes off this grid. Nothing is placed.
+     */
+    public void place(final Ship ship, final Coordinate origin, final Orientation orientation)
+            throws OverlappingException, OffTheGridException {
+        switch (tryPlace(ship, origin.getX(), origin.getY(), orientation)) {
+            case OFF_GRID:
                 throw new OffTheGridException();
+            case OVERLAP:
+                throw new OverlappingException();
+        }
+    }
+
+    /**
+     * Place a ship starting at an origin and going in an horizontal orientation on this grid,
+     * reporting failure as an outcome rather than an exception.
+     *
+     * @param ship Type of ship to place
+     * @param x    Left-most column of this ship
+     * @param y    Row of this ship
+     * @return PLACED, or OFF_GRID or OVERLAP if nothing was placed
+     */
+    public Outcome tryPlace(final Ship ship, final int x, final int y) {
+        return tryPlace(ship, x, y, Orientation.HORIZONTAL);
+    }
+
+    /**
+     * Place a ship starting at a packed origin and going in the given orientation on this grid,
+     * reporting failure as an outcome rather than an exception.
+     *
+     * @param ship         Type of ship to place
+     * @param packedOrigin Left-most or top-most coordinate of this ship, packed with Coordinate.pack
+     * @param orientation  Direction in which the ship extends from its origin
+     * @return PLACED, or OFF_GRID or OVERLAP if nothing was placed
+     * @throws IllegalStateException if this grid is too large for packed coordinates
+     */
+    public Outcome tryPlace(final Ship ship, final int packedOrigin, final Orientation orientation) {
+        checkPackable();
+        if (packedOrigin == Coordinate.INVALID) {
+            return Outcome.OFF_GRID;
+        }
+        return tryPlace(ship, Coordinate.unpackX(packedOrigin), Coordinate.unpackY(packedOrigin), orientation);
+    }
+
+    /**
+     * Place a ship starting at an origin and going in the given orientation on this grid,
+     * reporting failure as an outcome rather than an exception.
+     *
+     * @param ship        Type of ship to place
+     * @param x           Column of the origin of this ship
+     * @param y           Row of the origin of this ship
+     * @param orientation Direction in which the ship extends from its origin
+     * @return PLACED, or OFF_GRID or OVERLAP if nothing was placed
+     * @throws IllegalArgumentException if the ship is not of the fleet of this grid
+     * @throws IllegalStateException    if the ship is already on this grid
+     */
+    public Outcome tryPlace(final Ship ship, final int x, final int y, final Orientation orientation) {
+        if (!fleet.contains(ship)) {
+            throw new IllegalArgumentException(ship + " is not of the fleet of this grid.");
+        }
+        if (placements[ship.id] != NOT_PLACED) {
+            throw new IllegalStateException(ship + " is already on this grid.");
+        }
+
+        final int dx = orientation.dx;
+        final int dy = orientation.dy;
+        final int length = ship.length;
+
+        if (!isOnGrid(x, y) || !isOnGrid(x + dx * (length - 1), y + dy * (length - 1))) {
+            return Outcome.OFF_GRID;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (cells.getStatus(x + dx * i, y + dy * i) != CellStatus.EMPTY) {
+                return Outcome.OVERLAP;
             }
+        }
 
-            if (cell.getStatus() != CellStatus.EMPTY) {
-                rollback(coordsPlaced);
-                throw new OverlappingException();
+        for (int i = 0; i < length; i++) {
+            cells.setShip(x + dx * i, y + dy * i, ship.id);
+            setStatus(x + dx * i, y + dy * i, CellStatus.PLACED);
+        }
+
+        placements[ship.id] = (long) x << 32 | (long) y << 1 | orientation.ordinal();
+        shipPlaced(ship);
+        if (listener != null) {
+            listener.placed(ship, x, y, orientation);
+        }
+
+        return Outcome.PLACED;
+    }
+
+    /**
+     * Take a ship that has not been struck off this grid, clearing only its own squares.
+     *
+     * @return true if the ship was on this grid and has been removed
+     * @throws IllegalStateException if any square of the ship has been struck
+     */
+    public boolean remove(final Ship ship) {
+        if (!fleet.contains(ship) || placements[ship.id] == NOT_PLACED) {
+            return false;
+        }
+
+        final long placement = placements[ship.id];
+        final int x = (int) (placement >>> 32);
+        final int y = (int) placement >>> 1;
+        final Orientation orientation = ORIENTATIONS[(int) placement & 1];
+        for (int i = 0; i < ship.length; i++) {
+            if (cells.getStatus(x + orientation.dx * i, y + orientation.dy * i) != CellStatus.PLACED) {
+                throw new IllegalStateException(ship + " has been struck.");
             }
+        }
 
-            cell.setShip(ship);
-            cell.setStatus(CellStatus.PLACED);
-            coordsPlaced.add(new Coordinate(x, y));
+        for (int i = 0; i < ship.length; i++) {
+            cells.setShip(x + orientation.dx * i, y + orientation.dy * i, CellStore.NO_SHIP);
+            setStatus(x + orientation.dx * i, y + orientation.dy * i, CellStatus.EMPTY);
         }
+        placements[ship.id] = NOT_PLACED;
+        shipRemoved(ship);
+        return true;
+    }
+
+    /**
+     * @return the left-most or top-most square of the given ship, or null if it is not on this grid
+     */
+    public Coordinate getOrigin(final Ship ship) {
+        final long placement = placement(ship);
+        return placement == NOT_PLACED ? null : Coordinate.valueOf((int) (placement >>> 32), (int) placement >>> 1);
     }
 
-    private void rollback(Set<Coordinate> coordsPlaced) {
-        for (Coordinate coordsToRollback : coordsPlaced) {
-            cells[coordsToRollback.getX()][coordsToRollback.getY()] = new Cell();
+    /**
+     * @return the direction in which the given ship extends from its origin, or null if
+     *         it is not on this grid
+     */
+    public Orientation getOrientation(final Ship ship) {
+        final long placement = placement(ship);
+        return placement == NOT_PLACED ? null : ORIENTATIONS[(int) placement & 1];
+    }
+
+    /**
+     * Returns the squares of a ship from its origin on, as a sunk ship is revealed,
+     * without looking at any other square of this grid.
+     *
+     * @return the squares of the given ship, or an empty list if it is not on this grid
+     */
+    public List<Coordinate> getSquares(final Ship ship) {
+        final long placement = placement(ship);
+        if (placement == NOT_PLACED) {
+            return Collections.emptyList();
         }
+
+        final int x = (int) (placement >>> 32);
+        final int y = (int) placement >>> 1;
+        final Orientation orientation = ORIENTATIONS[(int) placement & 1];
+        final Coordinate[] squares = new Coordinate[ship.length];
+        for (int i = 0; i < ship.length; i++) {
+            squares[i] = Coordinate.valueOf(x + orientation.dx * i, y + orientation.dy * i);
+        }
+        return Collections.unmodifiableList(Arrays.asList(squares));
+    }
+
+    private long placement(final Ship ship) {
+        return fleet.contains(ship) ? placements[ship.id] : NOT_PLACED;
     }
 
     /**
@@ -137,85 +461,302 @@ public class Grid implements Iterable<Cell> {
      * @throws OffTheGridException Struck a coordinate not on this Grid
      */
     public boolean strike(final Coordinate coord) throws OffTheGridException {
-        final Cell cell;
-
-        try {
-            cell = cells[coord.getX()][coord.getY()];
-        } catch (ArrayIndexOutOfBoundsException e) {
+        final Outcome outcome = tryStrike(coord.getX(), coord.getY());
+        if (outcome == Outcome.OFF_GRID) {
             throw new OffTheGridException();
         }
+        return outcome.isHit();
+    }
 
-        final boolean isNewHit = cell.getStatus() == CellStatus.PLACED;
-        cell.setStatus(isNewHit || cell.getStatus() == CellStatus.HIT ?
-                       CellStatus.HIT : CellStatus.MISSED);
+    /**
+     * Attempt to strike a ship at a packed coordinate, reporting a strike
+     * off this grid as an outcome rather than an exception.
+     *
+     * @param packedCoord strike coordinate, packed with Coordinate.pack
+     * @return MISS, HIT, SUNK, REPEAT or OFF_GRID
+     * @throws IllegalStateException if this grid is too large for packed coordinates
+     */
+    public Outcome tryStrike(final int packedCoord) {
+        checkPackable();
+        if (packedCoord == Coordinate.INVALID) {
+            return Outcome.OFF_GRID;
+        }
+        return tryStrike(Coordinate.unpackX(packedCoord), Coordinate.unpackY(packedCoord));
+    }
 
-        if (isNewHit && !isShipAfloat(cell.getShip())) {
-            sunkenShips.add(cell.getShip());
+    /**
+     * Attempt to strike a ship at the given coordinate, reporting a strike
+     * off this grid as an outcome rather than an exception.
+     *
+     * @return MISS, HIT, SUNK, REPEAT or OFF_GRID
+     */
+    public Outcome tryStrike(final int x, final int y) {
+        if (!isOnGrid(x, y)) {
+            return Outcome.OFF_GRID;
+        }
+
+        final Outcome outcome = strikeOnGrid(x, y);
+        if (listener != null) {
+            listener.struck(x, y, outcome);
         }
+        return outcome;
+    }
 
-        return isNewHit;
+    private Outcome strikeOnGrid(final int x, final int y) {
+        switch (cells.strike(x, y)) {
+            case EMPTY:
+                patchFrames(x, y, CellStatus.MISSED);
+                return Outcome.MISS;
+            case PLACED:
+                patchFrames(x, y, CellStatus.HIT);
+                return shipHit(fleet.ships[cells.getShip(x, y)]) ? Outcome.SUNK : Outcome.HIT;
+            default:
+                return Outcome.REPEAT;
+        }
     }
 
     /**
-     * Iterates over this grid to determine if the specified ship is still alive.
+     * Strike a whole volley of coordinates in one pass.
      *
-     * @param ship to find on grid
-     * @return true if any unsunk ships exist
+     * @param packedCoords coordinates packed with Coordinate.pack
+     * @param outcomes     receives the outcome of each strike, at the index of its coordinate
+     * @return the ships sunk by this volley, in the order they sank
+     * @throws IllegalStateException if this grid is too large for packed coordinates
      */
-    private boolean isShipAfloat(final Ship ship) {
-        return matchingCellExists(new Matcher<Cell>() {
-            @Override
-            public boolean match(Cell cell) {
-                return cell.getShip() == ship && cell.getStatus() == CellStatus.PLACED;
-
+    public List<Ship> strikeAll(final int[] packedCoords, final Outcome[] outcomes) {
+        checkPackable();
+        List<Ship> sunk = Collections.emptyList();
+        for (int i = 0; i < packedCoords.length; i++) {
+            outcomes[i] = tryStrike(packedCoords[i]);
+            if (outcomes[i] == Outcome.SUNK) {
+                if (sunk.isEmpty()) {
+                    sunk = new ArrayList<Ship>();
+                }
+                sunk.add(getShip(Coordinate.unpackX(packedCoords[i]), Coordinate.unpackY(packedCoords[i])));
             }
-        });
+        }
+        return sunk;
+    }
+
+    /**
+     * Count the squares of a ship that has just been placed.
+     */
+    void shipPlaced(final Ship ship) {
+        counts.placed(ship.id, ship.length);
+    }
+
+    /**
+     * Uncount the squares of a ship that has just been removed, none of them hit.
+     */
+    void shipRemoved(final Ship ship) {
+        counts.removed(ship.id, ship.length);
+    }
+
+    /**
+     * Count a new hit on a ship.
+     *
+     * @return true if the hit sank the ship
+     */
+    boolean shipHit(final Ship ship) {
+        return counts.hit(ship.id);
     }
 
     /**
-     * Iterates over this grid to determine if any ships are still afloat.
+     * @return whether the given ship of the fleet of this grid has been sunk; false for a ship of another fleet
+     */
+    public boolean isSunk(final Ship ship) {
+        return fleet.contains(ship) && counts.isSunk(ship.id);
+    }
+
+    /**
+     * Determines if any ships are still afloat from the running count kept by place and strike.
      *
      * @return true if any unsunk ships exist
      */
     public boolean areAnyShipsAfloat() {
-        return matchingCellExists(new Matcher<Cell>() {
-            @Override
-            public boolean match(final Cell cell) {
-                return cell.getStatus() == CellStatus.PLACED;
+        return getShipsAfloat() > 0;
+    }
 
-            }
-        });
+    /**
+     * @return the number of ships with any unhit squares left
+     */
+    public int getShipsAfloat() {
+        return counts.afloat();
     }
 
     /**
-     * Returns the cell at the given coordinate.
+     * Returns the ship on a cell that has been struck, as a player is told when a ship sinks.
+     *
+     * @return the ship hit at the given coordinate, or null if the cell is off this grid,
+     * has not been struck or was a miss
+     */
+    public Ship getRevealedShip(final int x, final int y) {
+        if (!isOnGrid(x, y) || cells.getStatus(x, y) != CellStatus.HIT) {
+            return null;
+        }
+        return getShip(x, y);
+    }
+
+    /**
+     * Returns a snapshot of the cell at the given coordinate.
      */
     Cell getCell(Coordinate coord) {
-        return cells[coord.getX()][coord.getY()];
+        return getCell(coord.getX(), coord.getY());
     }
 
-    private boolean matchingCellExists(Matcher<Cell> matcher) {
-        for (Cell c : this) {
-            if (matcher.match(c)) {
-                return true;
-            }
+    private Cell getCell(final int x, final int y) {
+        final Cell cell = new Cell();
+        cell.setStatus(cells.getStatus(x, y));
+        cell.setShip(getShip(x, y));
+        return cell;
+    }
+
+    CellStatus getStatus(final int x, final int y) {
+        return cells.getStatus(x, y);
+    }
+
+    Ship getShip(final int x, final int y) {
+        final int ship = cells.getShip(x, y);
+        return ship == CellStore.NO_SHIP ? null : fleet.ships[ship];
+    }
+
+    /**
+     * Set a cell without counting its ship, for restoring a saved grid row by row. The
+     * first square restored of a ship is its origin and the second gives its orientation.
+     * Ships are counted with shipPlaced and shipHit once every cell has been set.
+     */
+    void restore(final int x, final int y, final CellStatus status, final Ship ship) {
+        cells.setShip(x, y, ship == null ? CellStore.NO_SHIP : ship.id);
+        setStatus(x, y, status);
+        if (ship == null) {
+            return;
+        }
+        if (placements[ship.id] == NOT_PLACED) {
+            placements[ship.id] = (long) x << 32 | (long) y << 1 | Orientation.HORIZONTAL.ordinal();
+        } else if (y != (int) placements[ship.id] >>> 1) {
+            placements[ship.id] = placements[ship.id] & ~1L | Orientation.VERTICAL.ordinal();
         }
-        return false;
     }
 
+    /**
+     * @throws IllegalStateException if a square of this grid could pack to INVALID, and so
+     *                               be taken for a square off the grid
+     */
+    void checkPackable() {
+        if (!Coordinate.isPackable(size)) {
+            throw new IllegalStateException("Grid is too large for packed coordinates.");
+        }
+    }
+
+    private boolean isOnGrid(final int x, final int y) {
+        return x >= 0 && x < size && y >= 0 && y < size;
+    }
+
+    /**
+     * Update the status of a cell along with its rendering.
+     */
+    private void setStatus(final int x, final int y, final CellStatus status) {
+        cells.setStatus(x, y, status);
+        patchFrames(x, y, status);
+    }
+
+    private void patchFrames(final int x, final int y, final CellStatus status) {
+        final Frames frames = this.frames;
+        if (frames != null) {
+            final int i = y * (size + 1) + x;
+            frames.masked[i] = status.display(true);
+            frames.unmasked[i] = status.display(false);
+        }
+    }
+
+    /**
+     * Whether to keep rendered frames and patch them on every change, which
+     * assumes one thread at a time changes or displays this grid.
+     */
+    boolean cachesFrames() {
+        return true;
+    }
+
+    /**
+     * @param mask hide the placement of ships that have not been hit
+     * @return the rows of this grid, one character per cell, separated by new lines
+     */
     public String display(boolean mask) {
-        final StringBuilder sb = new StringBuilder();
-
-        int colNum = 0;
-        for (Cell c : this) {
-            sb.append(c.getStatus().display(mask));
-            if(colNum++ == this.size) {
-                sb.append("\n");
-                colNum = 0;
+        return new String(frame(mask));
+    }
+
+    /**
+     * @param mask hide the placement of ships that have not been hit
+     * @return the character one square is displayed as, for renderers that redraw
+     *         squares one at a time
+     */
+    public char display(final int x, final int y, final boolean mask) {
+        return cells.getStatus(x, y).display(mask);
+    }
+
+    /**
+     * Write the rows of this grid to the given output without building an intermediate String.
+     *
+     * @param mask hide the placement of ships that have not been hit
+     * @param out  destination of the rendering
+     * @throws IOException if the output cannot be appended to
+     */
+    public void render(final boolean mask, final Appendable out) throws IOException {
+        final char[] frame = frame(mask);
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(frame);
+        } else if (out instanceof Writer) {
+            ((Writer) out).write(frame);
+        } else if (out instanceof CharBuffer) {
+            ((CharBuffer) out).put(frame);
+        } else {
+            out.append(CharBuffer.wrap(frame));
+        }
+    }
+
+    private char[] frame(final boolean mask) {
+        Frames frames = this.frames;
+        if (frames == null) {
+            final long length = (long) size * (size + 1) - 1;
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Grid is too large to display.");
+            }
+            // both frames are filled before they are published, so a patch never sees half of them
+            frames = new Frames((int) length);
+            fillFrames(frames);
+            if (cachesFrames()) {
+                this.frames = frames;
+            }
+        }
+        return mask ? frames.masked : frames.unmasked;
+    }
+
+    private void fillFrames(final Frames frames) {
+        for (int y = 0; y < size; y++) {
+            final int row = y * (size + 1);
+            for (int x = 0; x < size; x++) {
+                final CellStatus status = cells.getStatus(x, y);
+                frames.masked[row + x] = status.display(true);
+                frames.unmasked[row + x] = status.display(false);
+            }
+            if (y < size - 1) {
+                frames.masked[row + size] = '\n';
+                frames.unmasked[row + size] = '\n';
             }
         }
+    }
+
+    /**
+     * The rendered rows of a grid, with and without masking.
+     */
+    private static final class Frames {
+        final char[] masked;
+        final char[] unmasked;
 
-        return sb.toString();
+        Frames(final int length) {
+            masked = new char[length];
+            unmasked = new char[length];
+        }
     }
 
     /**
@@ -227,11 +768,15 @@ public class Grid implements Iterable<Cell> {
     }
 
     /**
-     * @return a set of sunken ships on this grid.
+     * @return a copy of the set of sunken ships on this grid, built from the sunk bit of
+     *         every ship; use isSunk or strikeAll to follow sinkings from round to round
      */
     public Set<Ship> getSunkenShips() {
-        assert sunkenShips != null;
-        return EnumSet.copyOf(sunkenShips);
+        final Set<Ship> ships = new LinkedHashSet<Ship>();
+        for (int id = counts.nextSunk(0); id >= 0; id = counts.nextSunk(id + 1)) {
+            ships.add(fleet.ships[id]);
+        }
+        return ships;
     }
 
     @Override
@@ -240,7 +785,7 @@ public class Grid implements Iterable<Cell> {
     }
 
     /**
-     * Iterator to cycle over the cells on this grid. Starts at (0,0),
+     * Iterator to cycle over snapshots of the cells on this grid. Starts at (0,0),
      * moves across first row, then to subsequent rows, until completing all cells.
      * e.g. (1,0), (2,0), (...,0), (1,1), (2,1), ..., (size - 1, size - 1)
      */
@@ -262,20 +807,12 @@ public class Grid implements Iterable<Cell> {
             x = (x + 1 < size) ? x + 1 : 0;
             y = (y + 1 < size) && (x == 0) ? y + 1 : y;
 
-            return cells[x][y];
+            return getCell(x, y);
         }
 
         @Override
         public void remove() {
             throw new UnsupportedOperationException();
         }
-
-        /**
-         * Apply the given transformation to the current cell on the grid
-         * @param transformation
-         */
-        private void apply(Transformation<Cell> transformation) {
-            cells[x][y] = transformation.transform(cells[x][y]);
-        }
     }
 }
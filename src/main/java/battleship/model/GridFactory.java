@@ -0,0 +1,42 @@
+package battleship.model;
+
+/**
+ * Creates grids with the storage backend best suited to their size.
+ */
+public final class GridFactory {
+
+    /**
+     * Largest number of squares for which a grid is backed by a bitboard, about 32 MB of bit planes.
+     */
+    static final long MAX_DENSE_SQUARES = 1L << 26;
+
+    /**
+     * Create a square grid of a specified size, backed by a bitboard or, for
+     * boards too large to store every square, by sparse storage.
+     *
+     * @param size of each side
+     */
+    public static Grid create(final int size) {
+        return create(size, storageFor(size));
+    }
+
+    /**
+     * @return a bitboard, or sparse storage for boards too large to store every square
+     */
+    public static Grid.Storage storageFor(final int size) {
+        return (long) size * size > MAX_DENSE_SQUARES ? Grid.Storage.SPARSE : Grid.DEFAULT_STORAGE;
+    }
+
+    /**
+     * Create a square grid of a specified size backed by the given storage.
+     *
+     * @param size    of each side
+     * @param storage backend holding the cells
+     */
+    public static Grid create(final int size, final Grid.Storage storage) {
+        return new Grid(size, storage);
+    }
+
+    private GridFactory() {
+    }
+}
@@ -0,0 +1,52 @@
+package battleship.model;
+
+import java.util.Random;
+
+/**
+ * RandomSource backed by a java.util.Random, which may be seeded for reproducible layouts.
+ */
+public final class JdkRandomSource implements RandomSource {
+
+    private final Random random;
+
+    public JdkRandomSource() {
+        this(new Random());
+    }
+
+    public JdkRandomSource(final long seed) {
+        this(new Random(seed));
+    }
+
+    public JdkRandomSource(final Random random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong(final long bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        if (bound <= Integer.MAX_VALUE) {
+            return random.nextInt((int) bound);
+        }
+
+        // reject the top partial range so that every value stays equally likely
+        long bits;
+        long value;
+        do {
+            bits = random.nextLong() >>> 1;
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+    @Override
+    public JdkRandomSource split() {
+        return new JdkRandomSource(random.nextLong());
+    }
+}
@@ -0,0 +1,20 @@
+package battleship.model;
+
+/**
+ * Told of every change made to a grid, for example to journal the moves of a game.
+ * A listener on a ConcurrentGrid is called from every striking thread.
+ */
+public interface MoveListener {
+
+    /**
+     * A ship has been placed.
+     */
+    void placed(Ship ship, int x, int y, Orientation orientation);
+
+    /**
+     * A square on the grid has been struck.
+     *
+     * @param outcome MISS, HIT, SUNK or REPEAT
+     */
+    void struck(int x, int y, Outcome outcome);
+}
@@ -0,0 +1,24 @@
+package battleship.model;
+
+/**
+ * Direction in which a ship extends from its origin.
+ */
+public enum Orientation {
+    /**
+     * Extends along x from the left-most cell.
+     */
+    HORIZONTAL(1, 0),
+
+    /**
+     * Extends along y from the top-most cell.
+     */
+    VERTICAL(0, 1);
+
+    final int dx;
+    final int dy;
+
+    Orientation(final int dx, final int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+}
@@ -0,0 +1,48 @@
+package battleship.model;
+
+/**
+ * Result of placing a ship on, or striking at, a grid.
+ */
+public enum Outcome {
+    /**
+     * The ship was placed.
+     */
+    PLACED,
+
+    /**
+     * The ship would overlap another ship and was not placed.
+     */
+    OVERLAP,
+
+    /**
+     * The placement or strike falls outside of the grid.
+     */
+    OFF_GRID,
+
+    /**
+     * The strike landed on an empty cell.
+     */
+    MISS,
+
+    /**
+     * The strike hit a ship that is still afloat.
+     */
+    HIT,
+
+    /**
+     * The strike hit the last unhit cell of a ship.
+     */
+    SUNK,
+
+    /**
+     * The cell had already been struck.
+     */
+    REPEAT;
+
+    /**
+     * @return true if a strike with this outcome hit a ship for the first time
+     */
+    public boolean isHit() {
+        return this == HIT || this == SUNK;
+    }
+}
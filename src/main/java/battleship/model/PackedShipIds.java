@@ -0,0 +1,56 @@
+package battleship.model;
+
+import java.util.Arrays;
+
+/**
+ * The id of the ship on each square of a grid, packed into longs at the fewest bits
+ * able to hold the id of every ship of the fleet. Squares are indexed row by row
+ * (y * size + x). Updates are not thread-safe.
+ */
+final class PackedShipIds {
+
+    private final int shipBits;
+    private final int shipsPerWord;
+    private final long shipMask;
+    private final long[] ships;
+
+    /**
+     * @param squares   number of squares on the grid
+     * @param shipCount number of ships in the fleet of the grid
+     */
+    PackedShipIds(final int squares, final int shipCount) {
+        this.shipBits = shipBits(shipCount);
+        this.shipsPerWord = Long.SIZE / shipBits;
+        this.shipMask = (1L << shipBits) - 1;
+        this.ships = new long[(squares + shipsPerWord - 1) / shipsPerWord];
+    }
+
+    /**
+     * @return the fewest bits able to hold the id of any of the given number of ships
+     */
+    static int shipBits(final int shipCount) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(shipCount - 1));
+    }
+
+    /**
+     * @return the id last set on the i-th square; 0 if none has been set since clear
+     */
+    int get(final int i) {
+        final int shift = (i % shipsPerWord) * shipBits;
+        return (int) ((ships[i / shipsPerWord] >>> shift) & shipMask);
+    }
+
+    /**
+     * @param ship id of the ship on the i-th square, or NO_SHIP
+     */
+    void set(final int i, final int ship) {
+        final int shift = (i % shipsPerWord) * shipBits;
+        final long id = ship == CellStore.NO_SHIP ? 0 : ship;
+        final int word = i / shipsPerWord;
+        ships[word] = (ships[word] & ~(shipMask << shift)) | (id << shift);
+    }
+
+    void clear() {
+        Arrays.fill(ships, 0L);
+    }
+}
@@ -0,0 +1,224 @@
+package battleship.model;
+
+/**
+ * Lays out a fleet by drawing each ship uniformly from the placements that are
+ * still legal, in either orientation, so no draw is ever wasted on an overlap or
+ * an off-grid position. Legal placements are derived from the free runs of every
+ * row and column, which are updated as each ship is laid down. The number of them is
+ * counted over every line once for each length in the fleet, and is then kept up to
+ * date from the lines each ship splits.
+ * <p>
+ * layoutByRejection draws from the same distribution by drawing any origin and
+ * orientation and trying again until one is legal. It keeps only the squares taken,
+ * so it is the cheaper of the two on large, sparsely filled grids, where counting
+ * placements along every line costs more than the few draws that are rejected.
+ */
+final class PlacementEngine {
+
+    /**
+     * Maximum number of times a layout is restarted after a ship is left with no legal placement.
+     */
+    static final int MAX_ATTEMPTS = 100;
+
+    /**
+     * Draws rejected for one ship before layoutByRejection starts again.
+     */
+    static final int MAX_REJECTIONS = 10000;
+
+    private final int size;
+    private final RandomSource random;
+    private long rejected;
+
+    private FreeRuns[] rows;
+    private FreeRuns[] columns;
+
+    // legal placements along the rows and along the columns for a ship of the given length
+    private int length;
+    private long horizontal;
+    private long vertical;
+
+    PlacementEngine(final int size, final RandomSource random) {
+        this.size = size;
+        this.random = random;
+    }
+
+    /**
+     * Lay out ships of the given lengths on an empty grid, writing the chosen origin
+     * and orientation of the i-th ship into xs[i], ys[i] and orientations[i].
+     *
+     * @return the number of attempts it took, starting again from an empty grid each time
+     * @throws IllegalStateException if no complete layout was found within MAX_ATTEMPTS
+     */
+    int layout(final int[] lengths, final int[] xs, final int[] ys, final Orientation[] orientations) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (tryLayout(lengths, xs, ys, orientations)) {
+                return attempt;
+            }
+        }
+        throw new IllegalStateException("Could not fit the fleet on the grid.");
+    }
+
+    /**
+     * Lay out ships as layout does, by rejecting draws that overlap or leave the grid.
+     *
+     * @return the number of attempts it took, starting again from an empty grid each time
+     * @throws IllegalStateException if no complete layout was found within MAX_ATTEMPTS
+     */
+    int layoutByRejection(final int[] lengths, final int[] xs, final int[] ys, final Orientation[] orientations) {
+        final LongIntMap taken = new LongIntMap();
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            taken.clear();
+            if (tryLayoutByRejection(taken, lengths, xs, ys, orientations)) {
+                return attempt;
+            }
+        }
+        throw new IllegalStateException("Could not fit the fleet on the grid.");
+    }
+
+    /**
+     * @return the number of draws rejected by layoutByRejection on this engine, over all its attempts
+     */
+    long getRejections() {
+        return rejected;
+    }
+
+    private boolean tryLayoutByRejection(final LongIntMap taken, final int[] lengths, final int[] xs,
+                                         final int[] ys, final Orientation[] orientations) {
+        for (int i = 0; i < lengths.length; i++) {
+            int rejections = 0;
+            while (!tryDraw(taken, lengths[i], i, xs, ys, orientations)) {
+                rejected++;
+                if (++rejections == MAX_REJECTIONS) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean tryDraw(final LongIntMap taken, final int length, final int i, final int[] xs,
+                            final int[] ys, final Orientation[] orientations) {
+        final Orientation orientation = random.nextInt(2) == 0 ? Orientation.HORIZONTAL : Orientation.VERTICAL;
+        final int x = random.nextInt(size);
+        final int y = random.nextInt(size);
+        if (x + orientation.dx * (length - 1) >= size || y + orientation.dy * (length - 1) >= size) {
+            return false;
+        }
+        for (int j = 0; j < length; j++) {
+            if (taken.get(square(x + orientation.dx * j, y + orientation.dy * j), 0) != 0) {
+                return false;
+            }
+        }
+
+        for (int j = 0; j < length; j++) {
+            taken.put(square(x + orientation.dx * j, y + orientation.dy * j), 1);
+        }
+        xs[i] = x;
+        ys[i] = y;
+        orientations[i] = orientation;
+        return true;
+    }
+
+    private long square(final int x, final int y) {
+        return (long) y * size + x;
+    }
+
+    private boolean tryLayout(final int[] lengths, final int[] xs, final int[] ys, final Orientation[] orientations) {
+        // lines are only materialized once something is placed on them
+        rows = new FreeRuns[size];
+        columns = new FreeRuns[size];
+        length = 0;
+
+        for (int i = 0; i < lengths.length; i++) {
+            if (lengths[i] != length) {
+                // ships come longest first, so this happens once for each length
+                length = lengths[i];
+                horizontal = placements(rows, length);
+                vertical = placements(columns, length);
+            }
+
+            final long total = horizontal + vertical;
+            if (total == 0) {
+                return false;
+            }
+
+            final long k = random.nextLong(total);
+            if (k < horizontal) {
+                final long pick = pick(rows, length, k);
+                ys[i] = (int) (pick >>> 32);
+                xs[i] = (int) pick;
+                orientations[i] = Orientation.HORIZONTAL;
+            } else {
+                final long pick = pick(columns, length, k - horizontal);
+                xs[i] = (int) (pick >>> 32);
+                ys[i] = (int) pick;
+                orientations[i] = Orientation.VERTICAL;
+            }
+
+            occupy(xs[i], ys[i], orientations[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Find the k-th legal placement of a ship of the given length along the given lines.
+     *
+     * @return the index of the line in the upper 32 bits and the position along it in the lower 32 bits
+     */
+    private long pick(final FreeRuns[] lines, final int length, long k) {
+        for (int i = 0; i < lines.length; i++) {
+            final long placements = placements(lines[i], length);
+            if (k < placements) {
+                final int position = lines[i] == null ? (int) k : lines[i].position(length, k);
+                return ((long) i << 32) | position;
+            }
+            k -= placements;
+        }
+        throw new IllegalArgumentException("No such placement: " + k);
+    }
+
+    private void occupy(final int x, final int y, final Orientation orientation) {
+        if (orientation == Orientation.HORIZONTAL) {
+            horizontal += occupy(rows, y, x, x + length);
+            for (int i = x; i < x + length; i++) {
+                vertical += occupy(columns, i, y, y + 1);
+            }
+        } else {
+            vertical += occupy(columns, x, y, y + length);
+            for (int i = y; i < y + length; i++) {
+                horizontal += occupy(rows, i, x, x + 1);
+            }
+        }
+    }
+
+    /**
+     * Mark [from, to) of the i-th line as occupied.
+     *
+     * @return the change in the number of legal placements along the line
+     */
+    private long occupy(final FreeRuns[] lines, final int i, final int from, final int to) {
+        final long before = placements(lines[i], length);
+        final FreeRuns line = run(lines, i);
+        line.occupy(from, to);
+        return line.placements(length) - before;
+    }
+
+    private long placements(final FreeRuns[] lines, final int length) {
+        long total = 0;
+        for (FreeRuns line : lines) {
+            total += placements(line, length);
+        }
+        return total;
+    }
+
+    private long placements(final FreeRuns line, final int length) {
+        return line == null ? Math.max(0, size - length + 1) : line.placements(length);
+    }
+
+    private FreeRuns run(final FreeRuns[] lines, final int i) {
+        if (lines[i] == null) {
+            lines[i] = new FreeRuns(size);
+        }
+        return lines[i];
+    }
+}
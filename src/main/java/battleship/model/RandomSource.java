@@ -0,0 +1,25 @@
+package battleship.model;
+
+/**
+ * Source of random numbers used to lay out ships. Implementations need not be thread-safe.
+ */
+public interface RandomSource {
+
+    /**
+     * @param bound exclusive upper bound, must be positive
+     * @return a uniformly distributed value in [0, bound)
+     */
+    int nextInt(int bound);
+
+    /**
+     * @param bound exclusive upper bound, must be positive
+     * @return a uniformly distributed value in [0, bound)
+     */
+    long nextLong(long bound);
+
+    /**
+     * Create a new source, for use by another thread, whose values are determined by the
+     * state of this one. Splitting a seeded source therefore yields reproducible sources.
+     */
+    RandomSource split();
+}
@@ -1,22 +1,86 @@
 package battleship.model;
 
 /**
- * Types of ship game pieces
+ * A ship game piece of a fleet. Each ship of a fleet has an id, dense from zero in
+ * the order the fleet was built, which grids use to index their state of the ship.
+ * The standard types below are the ships of the standard fleet; other fleets build
+ * their own ships, of any name and length.
  */
-public enum Ship {
+public final class Ship {
 
-    PATROL("Ship_Patrol", 2), SUBMARINE("Ship_Submarine", 3), DESTROYER("Ship_Destroyer", 4);
+    public static final Ship PATROL = new Ship(0, "PATROL", 2, "Ship_Patrol");
+    public static final Ship SUBMARINE = new Ship(1, "SUBMARINE", 3, "Ship_Submarine");
+    public static final Ship DESTROYER = new Ship(2, "DESTROYER", 4, "Ship_Destroyer");
 
+    private static final Ship[] TYPES = {PATROL, SUBMARINE, DESTROYER};
+
+    final int id;
     final int length;
+    private final String name;
     private final String labelKey;
 
-    Ship(String labelKey, final int length) {
-        this.labelKey = labelKey;
+    Ship(final int id, final String name, final int length, final String labelKey) {
+        this.id = id;
+        this.name = name;
         this.length = length;
+        this.labelKey = labelKey;
+    }
+
+    /**
+     * @return the standard types of ship, in the order of their ids
+     */
+    public static Ship[] values() {
+        return TYPES.clone();
+    }
+
+    /**
+     * @return the standard type of ship of the given name
+     * @throws IllegalArgumentException if there is no standard type of that name
+     */
+    public static Ship valueOf(final String name) {
+        final Ship type = type(name);
+        if (type == null) {
+            throw new IllegalArgumentException("No such ship: " + name);
+        }
+        return type;
+    }
+
+    /**
+     * @return the standard type of ship of the given name, or null
+     */
+    static Ship type(final String name) {
+        for (Ship type : TYPES) {
+            if (type.name.equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the index of this ship in its fleet
+     */
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
     }
 
+    /**
+     * @return the key of the label naming this ship, or null for a ship of no standard type
+     */
     public String getLabelKey() {
         return labelKey;
     }
 
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
 }
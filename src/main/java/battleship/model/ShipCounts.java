@@ -0,0 +1,43 @@
+package battleship.model;
+
+/**
+ * Running counts of the ships on a grid: the squares of each ship not yet hit, which
+ * ships have been sunk and how many are still afloat. Ships are held by their id in
+ * the fleet of the grid, as in a CellStore.
+ */
+interface ShipCounts {
+
+    /**
+     * Count the squares of a ship that has just been placed.
+     */
+    void placed(int ship, int length);
+
+    /**
+     * Uncount the squares of a ship that has just been removed, none of them hit.
+     */
+    void removed(int ship, int length);
+
+    /**
+     * Count a new hit on a ship.
+     *
+     * @return true if the hit sank the ship
+     */
+    boolean hit(int ship);
+
+    boolean isSunk(int ship);
+
+    /**
+     * @return the id of the first sunken ship at or after the given id, or -1 if there is none
+     */
+    int nextSunk(int ship);
+
+    /**
+     * @return the number of ships with any unhit squares left
+     */
+    int afloat();
+
+    /**
+     * Forget every ship, as on an empty grid.
+     */
+    void clear();
+}
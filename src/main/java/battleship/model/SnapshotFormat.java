@@ -0,0 +1,268 @@
+package battleship.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Versioned binary snapshot of a game in progress, for suspending it outside the heap.
+ * A snapshot of a grid of a given size and fleet always takes the same number of bytes:
+ * <pre>
+ *   int   magic
+ *   byte  version
+ *   byte  reserved, zero
+ *   short reserved, zero
+ *   int   size of each side of the grid
+ *   int   attempts
+ *   int   number of ships in the fleet
+ *   int   number of runs of ships of the same name and length, in the order of their ids
+ *   for each run:
+ *     byte  length of the name
+ *     bytes name, in ASCII
+ *     int   length of each ship
+ *     int   number of ships
+ *   bits  for each square, row by row: its status in 2 bits, then its ship's
+ *         id + 1 (0 for none) in the fewest bits able to hold every ship
+ * </pre>
+ * Multi-byte values are big-endian and the squares are packed from the most
+ * significant bit of each byte. The magic is cleared first and written last, so a
+ * snapshot torn by a crash part-way through writing it is not taken for a snapshot.
+ * Which ships are sunk is not stored: it follows from the hits on their squares.
+ */
+public final class SnapshotFormat {
+
+    static final int MAGIC = 0x42534E50;
+    static final byte VERSION = 2;
+
+    private static final int HEADER = 24;
+    private static final CellStatus[] STATUSES = CellStatus.values();
+
+    private SnapshotFormat() {
+    }
+
+    /**
+     * @return the number of bytes of a snapshot of a grid of the given size and the standard fleet
+     * @throws IllegalArgumentException if the snapshot would not fit in a ByteBuffer
+     */
+    public static int size(final int gridSize) {
+        return size(gridSize, Fleet.STANDARD);
+    }
+
+    /**
+     * @return the number of bytes of a snapshot of a grid of the given size and fleet
+     * @throws IllegalArgumentException if the snapshot would not fit in a ByteBuffer
+     */
+    public static int size(final int gridSize, final Fleet fleet) {
+        long bytes = HEADER + ((long) gridSize * gridSize * squareBits(fleet) + 7) / 8;
+        for (int id = 0; id < fleet.size(); id = endOfRun(fleet, id)) {
+            bytes += 1 + fleet.ships[id].getName().length() + 8;
+        }
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid is too large to snapshot.");
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Write a snapshot at the position of the given buffer, advancing it. The magic is
+     * written once everything else is.
+     */
+    public static void write(final Grid grid, final int attempts, final ByteBuffer out) {
+        final int size = grid.getSize();
+        final Fleet fleet = grid.getFleet();
+        final int start = out.position();
+        out.putInt(0);
+        out.put(VERSION);
+        out.put((byte) 0);
+        out.putShort((short) 0);
+        out.putInt(size);
+        out.putInt(attempts);
+
+        int runs = 0;
+        for (int id = 0; id < fleet.size(); id = endOfRun(fleet, id)) {
+            runs++;
+        }
+        out.putInt(fleet.size());
+        out.putInt(runs);
+        for (int id = 0; id < fleet.size(); ) {
+            final int end = endOfRun(fleet, id);
+            final byte[] name = fleet.ships[id].getName().getBytes(StandardCharsets.US_ASCII);
+            out.put((byte) name.length);
+            out.put(name);
+            out.putInt(fleet.ships[id].length);
+            out.putInt(end - id);
+            id = end;
+        }
+
+        final int shipBits = shipBits(fleet);
+        final int squareBits = 2 + shipBits;
+        long bits = 0;
+        int count = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                final Ship ship = grid.getShip(x, y);
+                bits = bits << squareBits
+                        | grid.getStatus(x, y).ordinal() << shipBits
+                        | (ship == null ? 0 : ship.id + 1);
+                count += squareBits;
+                while (count >= 8) {
+                    count -= 8;
+                    out.put((byte) (bits >>> count));
+                }
+            }
+        }
+        if (count > 0) {
+            out.put((byte) (bits << (8 - count)));
+        }
+        out.putInt(start, MAGIC);
+    }
+
+    /**
+     * Read the grid size of the snapshot at the position of the given buffer,
+     * without advancing it.
+     *
+     * @throws IllegalArgumentException if there is no snapshot of this version there
+     */
+    public static int readSize(final ByteBuffer in) {
+        final int start = in.position();
+        if (in.getInt(start) != MAGIC) {
+            throw new IllegalArgumentException("Not a snapshot.");
+        }
+        if (in.get(start + 4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version.");
+        }
+        return in.getInt(start + 8);
+    }
+
+    /**
+     * Read the fleet of the snapshot at the position of the given buffer, without
+     * advancing it.
+     *
+     * @throws IllegalArgumentException if there is no snapshot of this version there or it is corrupt
+     */
+    public static Fleet readFleet(final ByteBuffer in) {
+        readSize(in);
+        final ByteBuffer header = in.duplicate();
+        header.position(in.position() + 16);
+        final int ships = header.getInt();
+        final int runs = header.getInt();
+        if (runs < 1 || runs > ships || ships > Fleet.MAX_SHIPS) {
+            throw new IllegalArgumentException("Corrupt snapshot.");
+        }
+
+        final Fleet.Builder builder = new Fleet.Builder();
+        for (int run = 0; run < runs; run++) {
+            final byte[] name = new byte[header.get() & 0xFF];
+            header.get(name);
+            final int length = header.getInt();
+            builder.add(new String(name, StandardCharsets.US_ASCII), length, header.getInt());
+        }
+        final Fleet fleet = builder.build();
+        if (fleet.size() != ships) {
+            throw new IllegalArgumentException("Corrupt snapshot.");
+        }
+        return fleet;
+    }
+
+    /**
+     * Restore a snapshot at the position of the given buffer onto a grid of its
+     * size and fleet, advancing the buffer. Whatever was on the grid is cleared first.
+     *
+     * @return the attempts recorded in the snapshot
+     * @throws IllegalArgumentException if the snapshot is for another size of grid or
+     *                                  another fleet, or corrupt
+     */
+    public static int read(final ByteBuffer in, final Grid grid) {
+        final int size = grid.getSize();
+        final Fleet fleet = grid.getFleet();
+        if (readSize(in) != size) {
+            throw new IllegalArgumentException("Snapshot is of another size of grid.");
+        }
+        if (!readFleet(in).equals(fleet)) {
+            throw new IllegalArgumentException("Snapshot is of another fleet.");
+        }
+        in.position(in.position() + 12);
+        final int attempts = in.getInt();
+        in.position(in.position() + 4);
+        final int runs = in.getInt();
+        for (int run = 0; run < runs; run++) {
+            final int name = in.get() & 0xFF;
+            in.position(in.position() + name + 8);
+        }
+
+        grid.reset();
+        final int shipBits = shipBits(fleet);
+        final int squareBits = 2 + shipBits;
+        final int squareMask = (1 << squareBits) - 1;
+        final int[] squares = new int[fleet.size()];
+        final int[] hits = new int[fleet.size()];
+        long bits = 0;
+        int count = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                while (count < squareBits) {
+                    bits = bits << 8 | in.get() & 0xFF;
+                    count += 8;
+                }
+                count -= squareBits;
+                final int square = (int) (bits >>> count) & squareMask;
+                final CellStatus status = STATUSES[square >>> shipBits];
+                final int shipId = square & ((1 << shipBits) - 1);
+                if (shipId > fleet.size() || (shipId == 0) != (status == CellStatus.EMPTY || status == CellStatus.MISSED)) {
+                    throw new IllegalArgumentException("Corrupt snapshot.");
+                }
+
+                final Ship ship = shipId == 0 ? null : fleet.ships[shipId - 1];
+                grid.restore(x, y, status, ship);
+                if (ship != null) {
+                    squares[ship.id]++;
+                    if (status == CellStatus.HIT) {
+                        hits[ship.id]++;
+                    }
+                }
+            }
+        }
+
+        // count the ships through the same hooks as placing and striking them
+        for (Ship ship : fleet.ships) {
+            if (squares[ship.id] == 0) {
+                continue;
+            }
+            if (squares[ship.id] != ship.length) {
+                throw new IllegalArgumentException("Corrupt snapshot.");
+            }
+            // the squares of the ship must lie in a line from the origin found for it
+            for (Coordinate square : grid.getSquares(ship)) {
+                if (square.getX() >= size || square.getY() >= size
+                        || grid.getShip(square.getX(), square.getY()) != ship) {
+                    throw new IllegalArgumentException("Corrupt snapshot.");
+                }
+            }
+            grid.shipPlaced(ship);
+            for (int hit = 0; hit < hits[ship.id]; hit++) {
+                grid.shipHit(ship);
+            }
+        }
+        return attempts;
+    }
+
+    /**
+     * @return the id after the last ship of the same name and length as the given one
+     */
+    private static int endOfRun(final Fleet fleet, final int id) {
+        final Ship first = fleet.ships[id];
+        int end = id + 1;
+        while (end < fleet.size() && fleet.ships[end].length == first.length
+                && fleet.ships[end].getName().equals(first.getName())) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int shipBits(final Fleet fleet) {
+        return 32 - Integer.numberOfLeadingZeros(fleet.size());
+    }
+
+    private static int squareBits(final Fleet fleet) {
+        return 2 + shipBits(fleet);
+    }
+}
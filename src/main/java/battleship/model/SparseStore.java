@@ -0,0 +1,76 @@
+package battleship.model;
+
+/**
+ * Stores only the cells that are not empty, keyed by their packed coordinate,
+ * so memory grows with the number of ships and strikes rather than the area of the grid.
+ * Each value holds the status ordinal in its low two bits and the ship id plus one above them.
+ */
+final class SparseStore implements CellStore {
+
+    private static final CellStatus[] STATUSES = CellStatus.values();
+    private static final int EMPTY = 0;
+
+    private final long size;
+    private final LongIntMap cells = new LongIntMap();
+
+    SparseStore(final int size) {
+        this.size = size;
+    }
+
+    @Override
+    public CellStatus getStatus(final int x, final int y) {
+        return STATUSES[cells.get(key(x, y), EMPTY) & 3];
+    }
+
+    @Override
+    public void setStatus(final int x, final int y, final CellStatus status) {
+        final long key = key(x, y);
+        update(key, (cells.get(key, EMPTY) & ~3) | status.ordinal());
+    }
+
+    @Override
+    public int getShip(final int x, final int y) {
+        return (cells.get(key(x, y), EMPTY) >>> 2) - 1;
+    }
+
+    @Override
+    public void setShip(final int x, final int y, final int ship) {
+        final long key = key(x, y);
+        update(key, (cells.get(key, EMPTY) & 3) | (ship + 1) << 2);
+    }
+
+    @Override
+    public CellStatus strike(final int x, final int y) {
+        final CellStatus status = getStatus(x, y);
+        if (status == CellStatus.EMPTY) {
+            setStatus(x, y, CellStatus.MISSED);
+        } else if (status == CellStatus.PLACED) {
+            setStatus(x, y, CellStatus.HIT);
+        }
+        return status;
+    }
+
+    @Override
+    public void clear() {
+        cells.clear();
+    }
+
+    /**
+     * @return the number of cells currently held, i.e. those that are not empty
+     */
+    int occupancy() {
+        return cells.size();
+    }
+
+    private void update(final long key, final int value) {
+        if (value == EMPTY) {
+            cells.remove(key);
+        } else {
+            cells.put(key, value);
+        }
+    }
+
+    private long key(final int x, final int y) {
+        return y * size + x;
+    }
+}
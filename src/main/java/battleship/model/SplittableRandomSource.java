@@ -0,0 +1,40 @@
+package battleship.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * RandomSource backed by a java.util.SplittableRandom. Like the generator it wraps, it is
+ * not thread-safe; give each thread its own source by splitting one seeded source, and
+ * every thread's sequence is reproduced by the same seed without sharing any state.
+ */
+public final class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom random;
+
+    public SplittableRandomSource() {
+        this(new SplittableRandom());
+    }
+
+    public SplittableRandomSource(final long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomSource(final SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong(final long bound) {
+        return random.nextLong(bound);
+    }
+
+    @Override
+    public SplittableRandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+}
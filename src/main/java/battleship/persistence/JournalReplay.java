@@ -0,0 +1,335 @@
+package battleship.persistence;
+
+import battleship.model.Coordinate;
+import battleship.model.Fleet;
+import battleship.model.Grid;
+import battleship.model.Orientation;
+import battleship.model.Outcome;
+import battleship.model.Ship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams a MoveJournal to rebuild the grid of one game, or to re-run every game in
+ * it as a regression check, verifying that each move has the outcome it had when
+ * it was recorded. Ships of no standard type are named SHIP in rebuilt fleets, as
+ * their names are not journaled. An entry that cannot be applied, being corrupt or
+ * not fitting the game's grid, is counted as a mismatch and skipped.
+ */
+public class JournalReplay {
+
+    private static final Ship[] TYPES = Ship.values();
+    private static final Orientation[] ORIENTATIONS = Orientation.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    /**
+     * Bytes of the journal read at a time.
+     */
+    private static final int CHUNK = 1 << 20;
+
+    private final Path file;
+
+    /**
+     * Games whose NEW entry has been read, and whose fleet is being read, by id.
+     */
+    private final Map<Long, Starting> starting = new HashMap<Long, Starting>();
+    private long entries;
+    private long games;
+    private long mismatches;
+    private long nanos;
+
+    public JournalReplay(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Rebuild the grid of one game as it was after its last recorded move. Entries of
+     * other games are skipped, and not counted as mismatches.
+     *
+     * @return the grid, or null if the journal has no such game
+     * @throws IOException if the journal cannot be read
+     */
+    public Grid rebuild(final long gameId) throws IOException {
+        final Grid[] grid = new Grid[1];
+        replay(new Visitor() {
+            @Override
+            boolean follows(final long id) {
+                return id == gameId;
+            }
+
+            @Override
+            Grid grid(final long id, final int size, final Fleet fleet, final boolean start) {
+                if (start) {
+                    grid[0] = newGrid(size, fleet);
+                }
+                return grid[0];
+            }
+        });
+        return grid[0];
+    }
+
+    /**
+     * Re-run every game in the journal, comparing each move's outcome with the
+     * recorded one. A game's grid is dropped once all of its ships are sunk.
+     *
+     * @return the number of moves whose outcome differed, that belong to no game or
+     *         that cannot be applied
+     * @throws IOException if the journal cannot be read
+     */
+    public long verify() throws IOException {
+        final Map<Long, Grid> grids = new HashMap<Long, Grid>();
+        replay(new Visitor() {
+            @Override
+            Grid grid(final long id, final int size, final Fleet fleet, final boolean start) {
+                if (start) {
+                    final Grid grid = newGrid(size, fleet);
+                    grids.put(id, grid);
+                    return grid;
+                }
+                return grids.get(id);
+            }
+
+            @Override
+            void won(final long id) {
+                grids.remove(id);
+            }
+        });
+        return mismatches;
+    }
+
+    /**
+     * @return entries read by the last replay
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return games started in the part of the journal read by the last replay
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return moves of the last replay whose outcome differed, or that belonged to no game
+     */
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * @return time taken by the last replay
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    private static Grid newGrid(final int size, final Fleet fleet) {
+        return new Grid(size, Grid.DEFAULT_STORAGE, fleet, Grid.Placement.UNIFORM);
+    }
+
+    /**
+     * Chooses the grid each entry is applied to.
+     */
+    private abstract static class Visitor {
+        /**
+         * @return whether entries of the given game are to be applied; those of other games are skipped
+         */
+        boolean follows(final long id) {
+            return true;
+        }
+
+        /**
+         * @param start whether the entry starts a new game of the given size and fleet
+         * @return the grid of the game, or null if it has none, making the entry a mismatch
+         */
+        abstract Grid grid(long id, int size, Fleet fleet, boolean start);
+
+        void won(final long id) {
+        }
+    }
+
+    /**
+     * A game started by a NEW entry, whose grid is created once its fleet has been read.
+     */
+    private static final class Starting {
+        final int size;
+        final int ships;
+        final Fleet.Builder fleet = new Fleet.Builder();
+
+        Starting(final int size, final int ships) {
+            this.size = size;
+            this.ships = ships;
+        }
+    }
+
+    private void replay(final Visitor visitor) throws IOException {
+        final long start = System.nanoTime();
+        entries = 0;
+        games = 0;
+        mismatches = 0;
+        starting.clear();
+
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK);
+            buffer.limit(MoveJournal.HEADER);
+            readFully(channel, buffer);
+            if (buffer.position() < MoveJournal.HEADER || buffer.getInt(0) != MoveJournal.MAGIC
+                    || buffer.getInt(4) != MoveJournal.VERSION) {
+                throw new IOException("File is not a move journal: " + file);
+            }
+
+            buffer.clear();
+            while (channel.read(buffer) > 0 || buffer.position() >= MoveJournal.ENTRY) {
+                buffer.flip();
+                while (buffer.remaining() >= MoveJournal.ENTRY) {
+                    apply(visitor, buffer);
+                }
+                buffer.compact();
+            }
+
+            // games with no moves yet
+            for (Map.Entry<Long, Starting> game : starting.entrySet()) {
+                start(visitor, game.getKey(), game.getValue());
+            }
+        } finally {
+            starting.clear();
+            channel.close();
+            nanos = System.nanoTime() - start;
+        }
+    }
+
+    private void apply(final Visitor visitor, final ByteBuffer buffer) {
+        final long id = buffer.getLong();
+        final int packed = buffer.getInt();
+        final int info = buffer.getInt();
+        final int type = info >>> 24;
+        final int argument = info & 0xFFFFFF;
+        entries++;
+
+        if (type == MoveJournal.NEW) {
+            games++;
+            if (visitor.follows(id)) {
+                starting.put(id, new Starting(packed, argument));
+            }
+            return;
+        }
+        if (!visitor.follows(id)) {
+            return;
+        }
+        if (type == MoveJournal.FLEET) {
+            final Starting game = starting.get(id);
+            final int standardType = argument >>> 20;
+            if (game == null || standardType > TYPES.length) {
+                mismatches++;
+                return;
+            }
+            try {
+                game.fleet.add(standardType == 0 ? "SHIP" : TYPES[standardType - 1].getName(), packed,
+                               argument & MoveJournal.MAX_RUN);
+            } catch (IllegalArgumentException e) {
+                mismatches++; // a length or count no fleet can have
+            }
+            return;
+        }
+        if (type != MoveJournal.PLACE && type != MoveJournal.STRIKE) {
+            mismatches++;
+            return;
+        }
+
+        final Starting game = starting.remove(id);
+        final Grid grid = game != null ? start(visitor, id, game) : visitor.grid(id, 0, null, false);
+        if (grid == null) {
+            mismatches++;
+            return;
+        }
+
+        final Outcome outcome;
+        final Outcome recorded;
+        if (type == MoveJournal.PLACE) {
+            final int ship = argument & (Fleet.MAX_SHIPS - 1);
+            recorded = Outcome.PLACED;
+            outcome = ship < grid.getFleet().size() ? place(grid, grid.getFleet().get(ship), packed,
+                                                            ORIENTATIONS[argument >>> 23]) : null;
+        } else {
+            recorded = argument < OUTCOMES.length ? OUTCOMES[argument] : null;
+            outcome = recorded == null ? null : grid.tryStrike(packed);
+        }
+        if (outcome == null || outcome != recorded) {
+            mismatches++;
+        }
+        if (type == MoveJournal.STRIKE && !grid.areAnyShipsAfloat()) {
+            visitor.won(id);
+        }
+    }
+
+    /**
+     * @return the outcome of placing the ship, or null if it was already placed
+     */
+    private static Outcome place(final Grid grid, final Ship ship, final int packed, final Orientation orientation) {
+        try {
+            return grid.tryPlace(ship, packed, orientation);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the grid of a game whose fleet has been read, or null if it is to be skipped
+     */
+    private Grid start(final Visitor visitor, final long id, final Starting game) {
+        if (game.size < 1 || !Coordinate.isPackable(game.size)) {
+            mismatches++;
+            return null;
+        }
+        try {
+            final Fleet fleet = game.fleet.build();
+            if (fleet.size() != game.ships) {
+                mismatches++;
+                return null;
+            }
+            return visitor.grid(id, game.size, fleet, true);
+        } catch (IllegalArgumentException e) {
+            mismatches++; // no ships, or a ship longer than the grid
+            return null;
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading
+        }
+    }
+
+    /**
+     * Main entry point for replaying a journal
+     * @param args 0:journal file, 1:id of a game to rebuild and display; all games are
+     *             re-run and verified if no id is given
+     */
+    public static void main(final String[] args) throws IOException {
+        final JournalReplay replay = new JournalReplay(Paths.get(args[0]));
+        if (args.length > 1) {
+            final Grid grid = replay.rebuild(Long.parseLong(args[1]));
+            System.out.println(grid == null ? "No such game." : grid.display(false));
+            return;
+        }
+
+        final long mismatches = replay.verify();
+        final double seconds = replay.getNanos() / 1e9;
+        System.out.println(String.format("entries=%d games=%d mismatches=%d time=%.3fs entries/s=%.0f",
+                                         replay.getEntries(), replay.getGames(), mismatches, seconds,
+                                         replay.getEntries() / seconds));
+        if (mismatches != 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package battleship.persistence;
+
+import battleship.controller.GameEngine;
+import battleship.model.Fleet;
+import battleship.model.SnapshotFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File of fixed-size slots, each holding one suspended game in SnapshotFormat, mapped
+ * into memory so that suspending or resuming a game is a copy to or from the page
+ * cache and suspended games take no heap. Every game in a store has a grid of the same
+ * size and fleet. The file starts with a header recording the grid size, slot size,
+ * number of slots and a fingerprint of the fleet; a slot is empty while its first four
+ * bytes are zero, and a save sets them last.
+ * Distinct slots may be saved and loaded from different threads at once.
+ */
+public class MappedSnapshotStore implements Closeable {
+
+    private static final int MAGIC = 0x42535354;
+    private static final int VERSION = 3;
+    private static final int HEADER = 32;
+
+    /**
+     * Largest region of the file mapped as one buffer.
+     */
+    private static final int MAX_REGION = 1 << 30;
+
+    private final FileChannel channel;
+    private final int gridSize;
+    private final Fleet fleet;
+    private final int slotSize;
+    private final long slotCount;
+    private final int slotsPerRegion;
+    private final MappedByteBuffer[] regions;
+
+    /**
+     * Open a store of games of the standard fleet, creating it with every slot empty if
+     * the file does not exist.
+     *
+     * @param file      of the store
+     * @param gridSize  of the grid of every game in the store
+     * @param slotCount number of games the store can hold
+     * @throws IOException if the file cannot be mapped or is a store of other dimensions
+     * @throws IllegalArgumentException if a snapshot of the grid is larger than a mapped region
+     */
+    public MappedSnapshotStore(final Path file, final int gridSize, final long slotCount) throws IOException {
+        this(file, gridSize, Fleet.STANDARD, slotCount);
+    }
+
+    /**
+     * Open a store, creating it with every slot empty if the file does not exist.
+     *
+     * @param file      of the store
+     * @param gridSize  of the grid of every game in the store
+     * @param fleet     of the grid of every game in the store
+     * @param slotCount number of games the store can hold
+     * @throws IOException if the file cannot be mapped or is a store of other dimensions or another fleet
+     * @throws IllegalArgumentException if a snapshot of the grid is larger than a mapped region
+     */
+    public MappedSnapshotStore(final Path file, final int gridSize, final Fleet fleet, final long slotCount)
+            throws IOException {
+        // slots are whole numbers of longs; rounded in long, as a snapshot may be nearly Integer.MAX_VALUE bytes
+        final long bytes = (SnapshotFormat.size(gridSize, fleet) + 7L) & ~7L;
+        if (bytes > MAX_REGION) {
+            throw new IllegalArgumentException("Snapshot of " + bytes + " bytes is larger than a mapped region.");
+        }
+
+        this.gridSize = gridSize;
+        this.fleet = fleet;
+        this.slotSize = (int) bytes;
+        this.slotCount = slotCount;
+        this.slotsPerRegion = MAX_REGION / slotSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        try {
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+            if (header.getInt(0) == 0) {
+                header.putInt(4, VERSION);
+                header.putInt(8, gridSize);
+                header.putInt(12, slotSize);
+                header.putLong(16, slotCount);
+                header.putInt(24, fleet.hashCode());
+                header.putInt(0, MAGIC);
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != gridSize
+                    || header.getInt(12) != slotSize || header.getLong(16) != slotCount
+                    || header.getInt(24) != fleet.hashCode()) {
+                throw new IOException("File is not a snapshot store of these dimensions: " + file);
+            }
+
+            regions = new MappedByteBuffer[(int) ((slotCount + slotsPerRegion - 1) / slotsPerRegion)];
+            for (int i = 0; i < regions.length; i++) {
+                final long first = (long) i * slotsPerRegion;
+                final long slots = Math.min(slotsPerRegion, slotCount - first);
+                regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER + first * slotSize, slots * slotSize);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Suspend a game into a slot, replacing whatever the slot held.
+     *
+     * @throws IllegalArgumentException if the game's grid is not of this store's size and fleet
+     */
+    public void save(final long slot, final GameEngine engine) {
+        if (engine.getGrid().getSize() != gridSize) {
+            throw new IllegalArgumentException("Game is of another size of grid.");
+        }
+        if (!engine.getGrid().getFleet().equals(fleet)) {
+            throw new IllegalArgumentException("Game is of another fleet.");
+        }
+        engine.save(slot(slot));
+    }
+
+    /**
+     * Resume the game suspended in a slot. The slot keeps its copy until cleared.
+     *
+     * @return the game, or null if the slot is empty
+     */
+    public GameEngine load(final long slot) {
+        final ByteBuffer buffer = slot(slot);
+        if (buffer.getInt(buffer.position()) == 0) {
+            return null;
+        }
+        return GameEngine.restore(buffer);
+    }
+
+    /**
+     * Empty a slot.
+     */
+    public void clear(final long slot) {
+        final ByteBuffer buffer = slot(slot);
+        buffer.putInt(buffer.position(), 0);
+    }
+
+    /**
+     * Write every saved game through to the file, so that it survives a crash of the machine.
+     */
+    public void force() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * @return a buffer over the given slot, positioned at its start
+     */
+    private ByteBuffer slot(final long slot) {
+        if (slot < 0 || slot >= slotCount) {
+            throw new IndexOutOfBoundsException("No slot " + slot);
+        }
+
+        final ByteBuffer buffer = regions[(int) (slot / slotsPerRegion)].duplicate();
+        final int offset = (int) (slot % slotsPerRegion) * slotSize;
+        buffer.limit(offset + slotSize);
+        buffer.position(offset);
+        return buffer;
+    }
+}
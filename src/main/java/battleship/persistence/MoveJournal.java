@@ -0,0 +1,339 @@
+package battleship.persistence;
+
+import battleship.model.Coordinate;
+import battleship.model.Fleet;
+import battleship.model.MoveListener;
+import battleship.model.Orientation;
+import battleship.model.Outcome;
+import battleship.model.Ship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only binary journal of the moves of many games, from which any game can be
+ * rebuilt with JournalReplay. After an eight byte header of magic and version, the
+ * file is a sequence of fixed-size entries:
+ * <pre>
+ *   long  game id
+ *   int   NEW: size of the grid; FLEET: length of each ship; PLACE: packed origin;
+ *         STRIKE: packed coordinate
+ *   byte  type: NEW, FLEET, PLACE or STRIKE
+ *   3 bytes NEW: number of ships in the fleet
+ *         FLEET: id + 1 of the standard type named by the ships (0 for none) in the top
+ *         4 bits, number of ships in the low 20 bits
+ *         PLACE: orientation ordinal in the top bit, ship id in the low 23 bits
+ *         STRIKE: outcome ordinal
+ * </pre>
+ * A NEW entry is followed by FLEET entries giving its fleet as runs of ships of the
+ * same length, in the order of their ids. Names of ships of no standard type are not
+ * recorded. Squares are packed with Coordinate.pack, so only grids of up to
+ * Coordinate.PACKED_LIMIT squares a side can be journaled.
+ * Appending only copies the entry into a buffer. Entries reach the file, and are
+ * forced to the disk, when a caller syncs: the first caller to sync writes and
+ * forces everything appended so far, by any thread, while later callers wait for
+ * that one force instead of each issuing their own. Appends continue into a second
+ * buffer while a sync is under way. The listener of a game syncs once its whole fleet
+ * is placed and after every strike, or every given number of strikes, so a crash
+ * loses at most the moves since. A torn entry at the end of the file after a crash is
+ * ignored on replay and dropped when the journal is reopened.
+ */
+public class MoveJournal implements Closeable {
+
+    static final int MAGIC = 0x42534A4E;
+    static final int VERSION = 2;
+    static final int HEADER = 8;
+    static final int ENTRY = 16;
+
+    static final byte NEW = 0;
+    static final byte FLEET = 1;
+    static final byte PLACE = 2;
+    static final byte STRIKE = 3;
+
+    /**
+     * Most ships recorded by one FLEET entry.
+     */
+    static final int MAX_RUN = (1 << 20) - 1;
+
+    private static final int BUFFER = 4096 * ENTRY;
+
+    private final FileChannel channel;
+    private final Object lock = new Object();
+
+    private ByteBuffer filling = ByteBuffer.allocateDirect(BUFFER);
+    private ByteBuffer spare = ByteBuffer.allocateDirect(BUFFER);
+    private long appended;
+    private long durable;
+    private boolean syncing;
+    private boolean closed;
+
+    /**
+     * Open a journal for appending, creating it if the file does not exist.
+     *
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public MoveJournal(final Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE);
+        try {
+            final long length = channel.size();
+            if (length == 0) {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                channel.write(header);
+            } else {
+                // a read may return fewer bytes than asked for; a header cut short is corrupt
+                final ByteBuffer header = ByteBuffer.allocate(HEADER);
+                while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                    // keep reading
+                }
+                if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    throw new IOException("File is not a move journal: " + file);
+                }
+                // drop any torn entry left by a crash
+                channel.truncate(length - (length - HEADER) % ENTRY);
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Record the start of a game of the standard fleet, returning a listener that
+     * records its moves, syncing after every strike. Set the listener on the game's
+     * grid before laying out its ships.
+     *
+     * @param gameId   identifies the game in the journal; a new game with the id of an
+     *                 earlier one replaces it
+     * @param gridSize of the game's grid
+     * @throws IllegalArgumentException if the grid is larger than Coordinate.PACKED_LIMIT
+     */
+    public MoveListener newGame(final long gameId, final int gridSize) throws IOException {
+        return newGame(gameId, gridSize, Fleet.STANDARD);
+    }
+
+    /**
+     * Record the start of a game, returning a listener that records its moves, syncing
+     * after every strike. Set the listener on the game's grid before laying out its ships.
+     *
+     * @param gameId   identifies the game in the journal; a new game with the id of an
+     *                 earlier one replaces it
+     * @param gridSize of the game's grid
+     * @param fleet    of the game's grid
+     * @throws IllegalArgumentException if the grid is larger than Coordinate.PACKED_LIMIT
+     */
+    public MoveListener newGame(final long gameId, final int gridSize, final Fleet fleet) throws IOException {
+        return newGame(gameId, gridSize, fleet, 1);
+    }
+
+    /**
+     * Record the start of a game, returning a listener that records its moves. The
+     * listener syncs once the whole fleet has been placed and then every syncEvery
+     * strikes, so that a crash loses fewer than syncEvery strikes of the game. Set the
+     * listener on the game's grid before laying out its ships.
+     *
+     * @param gameId    identifies the game in the journal; a new game with the id of an
+     *                  earlier one replaces it
+     * @param gridSize  of the game's grid
+     * @param fleet     of the game's grid
+     * @param syncEvery strikes recorded between syncs
+     * @throws IllegalArgumentException if the grid is larger than Coordinate.PACKED_LIMIT
+     *                                  or syncEvery is not positive
+     */
+    public MoveListener newGame(final long gameId, final int gridSize, final Fleet fleet, final int syncEvery)
+            throws IOException {
+        if (!Coordinate.isPackable(gridSize)) {
+            throw new IllegalArgumentException("Grid must be at most " + Coordinate.PACKED_LIMIT
+                                                       + " squares a side to journal.");
+        }
+        if (syncEvery < 1) {
+            throw new IllegalArgumentException("Strikes between syncs must be positive.");
+        }
+
+        append(gameId, gridSize, NEW, fleet.size());
+        final List<Ship> ships = fleet.getShips();
+        for (int id = 0; id < ships.size(); ) {
+            final Ship first = ships.get(id);
+            int end = id + 1;
+            while (end < ships.size() && end - id < MAX_RUN && ships.get(end).getLength() == first.getLength()
+                    && ships.get(end).getName().equals(first.getName())) {
+                end++;
+            }
+            append(gameId, first.getLength(), FLEET, standardType(first.getName()) << 20 | end - id);
+            id = end;
+        }
+
+        final AtomicInteger placed = new AtomicInteger();
+        final AtomicInteger struck = new AtomicInteger();
+        return new MoveListener() {
+            @Override
+            public void placed(final Ship ship, final int x, final int y, final Orientation orientation) {
+                final long sequence = appendUnchecked(gameId, Coordinate.pack(x, y), PLACE,
+                                                      orientation.ordinal() << 23 | ship.getId());
+                if (placed.incrementAndGet() == fleet.size()) {
+                    syncUnchecked(sequence);
+                }
+            }
+
+            @Override
+            public void struck(final int x, final int y, final Outcome outcome) {
+                final long sequence = appendUnchecked(gameId, Coordinate.pack(x, y), STRIKE, outcome.ordinal());
+                if (struck.incrementAndGet() % syncEvery == 0) {
+                    syncUnchecked(sequence);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return id + 1 of the standard type of the given name, or 0 if there is none
+     */
+    private static int standardType(final String name) {
+        final Ship[] types = Ship.values();
+        for (int i = 0; i < types.length; i++) {
+            if (types[i].getName().equals(name)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the sequence number of the last entry appended, for sync
+     */
+    public long getAppended() {
+        synchronized (lock) {
+            return appended;
+        }
+    }
+
+    /**
+     * Wait until the entry with the given sequence number, and every one before it,
+     * is on the disk.
+     *
+     * @throws IOException if the journal could not be written
+     */
+    public void sync(final long sequence) throws IOException {
+        while (true) {
+            final ByteBuffer batch;
+            final long batchEnd;
+            synchronized (lock) {
+                while (durable < sequence && syncing) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                if (durable >= sequence) {
+                    return;
+                }
+                if (closed) {
+                    throw new IOException("Journal is closed or failed to write.");
+                }
+
+                syncing = true;
+                batch = filling;
+                batchEnd = appended;
+                filling = spare;
+                spare = null;
+            }
+
+            boolean written = false;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+                written = true;
+            } finally {
+                synchronized (lock) {
+                    batch.clear();
+                    spare = batch;
+                    syncing = false;
+                    if (written) {
+                        durable = batchEnd;
+                    } else {
+                        // the batch is lost, so nothing after it can be made durable
+                        closed = true;
+                    }
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait until every entry appended so far is on the disk.
+     */
+    public void sync() throws IOException {
+        sync(getAppended());
+    }
+
+    /**
+     * Sync and close the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            synchronized (lock) {
+                closed = true;
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * @return the sequence number of the entry
+     */
+    long append(final long gameId, final int packed, final byte type, final int argument) throws IOException {
+        while (true) {
+            final long full;
+            synchronized (lock) {
+                if (closed) {
+                    throw new IllegalStateException("Journal is closed.");
+                }
+                if (filling.remaining() >= ENTRY) {
+                    filling.putLong(gameId)
+                           .putInt(packed)
+                           .putInt(type << 24 | argument);
+                    return ++appended;
+                }
+                full = appended;
+            }
+
+            // the buffer is full; write it out, or wait for whoever is writing it
+            sync(full);
+        }
+    }
+
+    private long appendUnchecked(final long gameId, final int packed, final byte type, final int argument) {
+        try {
+            return append(gameId, packed, type, argument);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void syncUnchecked(final long sequence) {
+        try {
+            sync(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
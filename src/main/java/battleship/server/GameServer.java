@@ -0,0 +1,449 @@
+package battleship.server;
+
+import battleship.config.RuntimeConfiguration;
+import battleship.controller.GameEngine;
+import battleship.model.Grid;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
+import battleship.model.SplittableRandomSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hosts many concurrent games over TCP, one per connection, from a single selector
+ * thread. The protocol is line based ASCII:
+ * <pre>
+ *   x,y  or  x y   fire one shot; answered with "OUTCOME attempts", followed by the
+ *                  sunk ship's name on a sinking and by a "WON attempts" line when the
+ *                  last ship goes down, after which the next shot starts a new game
+ *   NEW            abandon the current game; answered with "OK"
+ *   QUIT           close the connection
+ * </pre>
+ * Anything else is answered with "ERROR"; a line longer than 32 bytes closes the
+ * connection. A client that does not read its responses stops being read until it
+ * catches up, and sessions idle for longer than the timeout are closed.
+ */
+public class GameServer implements Runnable, Closeable {
+
+    private static final Logger log = Logger.getLogger(GameServer.class.getName());
+
+    static final int MAX_LINE = 32;
+
+    /**
+     * Bytes read per client per selection. No byte of a request produces more than
+     * sixteen bytes of response, so one read can never overflow the output buffer.
+     */
+    private static final int READ_BUFFER = 256;
+    private static final int MAX_PENDING = READ_BUFFER * 16;
+
+    private static final byte[][] OUTCOMES = new byte[Outcome.values().length][];
+    private static final byte[] WON = ascii("WON ");
+    private static final byte[] OK = ascii("OK\n");
+    private static final byte[] ERROR = ascii("ERROR\n");
+
+    static {
+        for (Outcome outcome : Outcome.values()) {
+            OUTCOMES[outcome.ordinal()] = ascii(outcome.name() + " ");
+        }
+    }
+
+    private final int size;
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    private final RandomSource random;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final SessionRegistry sessions = new SessionRegistry();
+    private final ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(MAX_PENDING);
+    private volatile boolean closed;
+
+    /**
+     * Bind a server; call run, typically on a thread of its own, to start serving.
+     *
+     * @param address           to listen on; port 0 picks a free port
+     * @param size              of each side of the grid of every game
+     * @param idleTimeoutMillis after which a silent session is closed
+     * @param maxSessions       beyond which new connections are refused
+     * @param random            lays out every game; seed it to reproduce games, or null
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(final InetSocketAddress address, final int size, final long idleTimeoutMillis,
+                      final int maxSessions, final RandomSource random) throws IOException {
+        RuntimeConfiguration.current().newGrid(size); // validates the size up front
+
+        this.size = size;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxSessions = maxSessions;
+        this.random = random;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(address, maxSessions);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * @return the port this server listens on
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * @return number of open sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Serve connections until closed.
+     */
+    @Override
+    public void run() {
+        final long tick = Math.max(1, TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / 4);
+        try {
+            while (!closed) {
+                selector.select(tick);
+                final long now = System.nanoTime();
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        accept(now);
+                        continue;
+                    }
+
+                    final Session session = (Session) key.attachment();
+                    try {
+                        if (key.isWritable()) {
+                            flush(session);
+                            if (session.quitting && session.pending == null) {
+                                close(session);
+                            }
+                        }
+                        if (key.isValid() && key.isReadable() && session.pending == null) {
+                            read(session, now);
+                        }
+                    } catch (IOException e) {
+                        log.log(Level.FINE, "Closing session after I/O error", e);
+                        close(session);
+                    }
+                }
+
+                Session idle;
+                while ((idle = sessions.idleSince(now - idleTimeoutNanos)) != null) {
+                    close(idle);
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.SEVERE, "Game server stopped", e);
+        } finally {
+            shutDown();
+        }
+    }
+
+    /**
+     * Stop serving and close every session. Safe to call from any thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    private void accept(final long now) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            if (sessions.size() >= maxSessions) {
+                channel.close();
+                continue;
+            }
+
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            final SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            final Session session = new Session(channel, key, now);
+            key.attach(session);
+            sessions.add(session);
+        }
+    }
+
+    private void read(final Session session, final long now) throws IOException {
+        in.clear();
+        final int read = session.channel.read(in);
+        if (read < 0) {
+            close(session);
+            return;
+        }
+        sessions.touch(session, now);
+        in.flip();
+
+        out.clear();
+        while (in.hasRemaining()) {
+            final byte b = in.get();
+            if (b == '\n') {
+                if (!handle(session)) {
+                    quit(session);
+                    return;
+                }
+                session.lineLength = 0;
+            } else if (b != '\r') {
+                if (session.line == null) {
+                    session.line = new byte[MAX_LINE];
+                } else if (session.lineLength == MAX_LINE) {
+                    close(session);
+                    return;
+                }
+                session.line[session.lineLength++] = b;
+            }
+        }
+        out.flip();
+        send(session);
+    }
+
+    /**
+     * Answer one complete request line into the output buffer.
+     *
+     * @return false if the session should be closed
+     */
+    private boolean handle(final Session session) {
+        final byte[] line = session.line;
+        final int length = session.lineLength;
+        if (is(line, length, "QUIT")) {
+            return false;
+        }
+        if (is(line, length, "NEW")) {
+            abandon(session);
+            out.put(OK);
+            return true;
+        }
+
+        // x and y separated by a comma or spaces, parsed without allocating
+        int i = skipSpaces(line, 0, length);
+        final int xStart = i;
+        long x = 0;
+        while (i < length && isDigit(line[i])) {
+            x = Math.min(x * 10 + line[i++] - '0', Integer.MAX_VALUE);
+        }
+        final int xEnd = i;
+        i = skipSpaces(line, i, length);
+        if (i < length && line[i] == ',') {
+            i = skipSpaces(line, i + 1, length);
+        }
+        final int yStart = i;
+        long y = 0;
+        while (i < length && isDigit(line[i])) {
+            y = Math.min(y * 10 + line[i++] - '0', Integer.MAX_VALUE);
+        }
+        final int yEnd = i;
+        if (xEnd == xStart || yEnd == yStart || yStart == xEnd || skipSpaces(line, i, length) != length) {
+            out.put(ERROR);
+            return true;
+        }
+
+        if (session.engine == null) {
+            session.engine = new GameEngine(newGrid(), random);
+        }
+        final GameEngine engine = session.engine;
+        final Outcome outcome = engine.fire((int) x, (int) y);
+        out.put(OUTCOMES[outcome.ordinal()]);
+        putInt(engine.getAttempts());
+        if (engine.getLastSunk() != null) {
+            // names of ships are at most Fleet.MAX_NAME ASCII characters
+            final String name = engine.getLastSunk().getName();
+            out.put((byte) ' ');
+            for (int c = 0; c < name.length(); c++) {
+                out.put((byte) name.charAt(c));
+            }
+        }
+        out.put((byte) '\n');
+
+        if (engine.isWon()) {
+            out.put(WON);
+            putInt(engine.getAttempts());
+            out.put((byte) '\n');
+            session.engine = null;
+        }
+        return true;
+    }
+
+    /**
+     * Write the output buffer to the client, keeping whatever it will not accept yet
+     * and no longer reading from it until that has been sent.
+     */
+    private void send(final Session session) throws IOException {
+        if (!out.hasRemaining()) {
+            return;
+        }
+        if (session.pending == null) {
+            session.channel.write(out);
+            if (!out.hasRemaining()) {
+                return;
+            }
+            session.pending = ByteBuffer.allocate(MAX_PENDING);
+            session.key.interestOps(SelectionKey.OP_WRITE);
+        }
+        session.pending.put(out);
+    }
+
+    private void flush(final Session session) throws IOException {
+        final ByteBuffer pending = session.pending;
+        pending.flip();
+        session.channel.write(pending);
+        if (pending.hasRemaining()) {
+            pending.compact();
+        } else {
+            session.pending = null;
+            session.key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void putInt(final int value) {
+        final int start = out.position();
+        int remaining = value;
+        do {
+            out.put((byte) ('0' + remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+
+        // digits were written least significant first
+        for (int i = start, j = out.position() - 1; i < j; i++, j--) {
+            final byte digit = out.get(i);
+            out.put(i, out.get(j));
+            out.put(j, digit);
+        }
+    }
+
+    private static void abandon(final Session session) {
+        if (session.engine != null) {
+            session.engine.abandon();
+            session.engine = null;
+        }
+    }
+
+    /**
+     * Close a session once the responses to the lines before its QUIT have been sent.
+     */
+    private void quit(final Session session) throws IOException {
+        out.flip();
+        send(session);
+        if (session.pending == null) {
+            close(session);
+        } else {
+            abandon(session);
+            session.quitting = true;
+        }
+    }
+
+    private void close(final Session session) {
+        if (session.closed) {
+            return;
+        }
+        session.closed = true;
+        abandon(session);
+        sessions.remove(session);
+        session.key.cancel();
+        try {
+            session.channel.close();
+        } catch (IOException e) {
+            log.log(Level.FINE, "Failed to close session", e);
+        }
+    }
+
+    private void shutDown() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Session) {
+                close((Session) key.attachment());
+            }
+        }
+        try {
+            server.close();
+            selector.close();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to shut down game server", e);
+        }
+    }
+
+    private static boolean is(final byte[] line, final int length, final String command) {
+        final int start = skipSpaces(line, 0, length);
+        int end = length;
+        while (end > start && line[end - 1] == ' ') {
+            end--;
+        }
+        if (end - start != command.length()) {
+            return false;
+        }
+        for (int i = 0; i < command.length(); i++) {
+            if (Character.toUpperCase(line[start + i]) != command.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpaces(final byte[] line, int i, final int length) {
+        while (i < length && line[i] == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(final byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static byte[] ascii(final String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return a grid for a new game, as currently configured
+     */
+    private Grid newGrid() {
+        try {
+            return RuntimeConfiguration.current().newGrid(size);
+        } catch (IllegalArgumentException e) {
+            log.log(Level.WARNING, "Configured fleet does not fit; starting a standard game", e);
+            return new Grid(size);
+        }
+    }
+
+    /**
+     * Main entry point for the game server on the loopback interface
+     * @param args 0:port, 1:size of grid, 2:idle timeout in seconds, 3:maximum sessions
+     */
+    public static void main(final String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        final int size = args.length > 1 ? Integer.parseInt(args[1]) : RuntimeConfiguration.current().gridSize;
+        final long timeout = args.length > 2 ? Long.parseLong(args[2]) : 300;
+        final int maxSessions = args.length > 3 ? Integer.parseInt(args[3]) : 100000;
+
+        final GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                                                 size, TimeUnit.SECONDS.toMillis(timeout), maxSessions,
+                                                 new SplittableRandomSource());
+        log.info("Serving games on port " + server.getPort());
+        server.run();
+    }
+}
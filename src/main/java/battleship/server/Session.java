@@ -0,0 +1,58 @@
+package battleship.server;
+
+import battleship.controller.GameEngine;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * State of one client connection. Only the selector thread touches a session.
+ * Everything beyond the connection itself is allocated on demand, so that an idle
+ * session costs a few dozen bytes plus its game: the game is created on the first
+ * shot, the line buffer on the first byte received and the output buffer only when
+ * the client stops keeping up with its responses.
+ */
+final class Session {
+
+    final SocketChannel channel;
+    final SelectionKey key;
+
+    GameEngine engine;
+
+    /**
+     * Bytes of the line received so far, up to the next newline.
+     */
+    byte[] line;
+    int lineLength;
+
+    /**
+     * Responses the client has not yet accepted, in fill mode; null when all are sent.
+     */
+    ByteBuffer pending;
+
+    long lastActive;
+
+    /**
+     * Whether the client has quit, so the session closes once its pending responses are sent.
+     */
+    boolean quitting;
+
+    /**
+     * Whether the session has been closed. Its key stays among the selector's keys until
+     * the next selection, so shutting down may come across it again.
+     */
+    boolean closed;
+
+    /**
+     * Neighbours in the registry's list, least recently active first.
+     */
+    Session previous;
+    Session next;
+
+    Session(final SocketChannel channel, final SelectionKey key, final long now) {
+        this.channel = channel;
+        this.key = key;
+        this.lastActive = now;
+    }
+}
@@ -0,0 +1,72 @@
+package battleship.server;
+
+/**
+ * The open sessions of a server, kept in a list ordered by last activity so that
+ * touching a session and finding the idle ones are both constant time per session.
+ * Only the selector thread modifies a registry; the size may be read from any thread.
+ */
+final class SessionRegistry {
+
+    private Session head;
+    private Session tail;
+    private volatile int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(final Session session) {
+        append(session);
+        size++;
+    }
+
+    void remove(final Session session) {
+        unlink(session);
+        size--;
+    }
+
+    /**
+     * Record activity on a session, moving it to the back of the idle order.
+     */
+    void touch(final Session session, final long now) {
+        session.lastActive = now;
+        if (session != tail) {
+            unlink(session);
+            append(session);
+        }
+    }
+
+    /**
+     * @return the least recently active session if it has been idle since before the
+     *         given time, else null
+     */
+    Session idleSince(final long deadline) {
+        return head != null && head.lastActive - deadline < 0 ? head : null;
+    }
+
+    private void append(final Session session) {
+        session.previous = tail;
+        session.next = null;
+        if (tail == null) {
+            head = session;
+        } else {
+            tail.next = session;
+        }
+        tail = session;
+    }
+
+    private void unlink(final Session session) {
+        if (session.previous == null) {
+            head = session.next;
+        } else {
+            session.previous.next = session.next;
+        }
+        if (session.next == null) {
+            tail = session.previous;
+        } else {
+            session.next.previous = session.previous;
+        }
+        session.previous = null;
+        session.next = null;
+    }
+}
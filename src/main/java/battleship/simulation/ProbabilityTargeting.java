@@ -0,0 +1,350 @@
+package battleship.simulation;
+
+import battleship.model.Coordinate;
+import battleship.model.Fleet;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
+import battleship.model.Ship;
+
+import java.util.Arrays;
+
+/**
+ * Targeting strategy for the Simulator that fires where unsunk ships are most likely
+ * to be. The game itself has no computer opponent to play it against. For every
+ * cell it keeps the number of legal placements of each unsunk ship that cover the
+ * cell, where a placement is legal if it covers no miss and no sunk ship. While
+ * there are hits on ships not yet sunk, cells are ranked first by placements that
+ * run through those hits, so the opponent finishes off a ship before hunting again.
+ * <p>
+ * Ships of the same length have the same placements, so placements are counted once
+ * for each length and weighted by the number of unsunk ships of that length. Both heat
+ * maps are maintained incrementally: a miss or a hit only changes the placements crossing
+ * the struck cell, so it costs O(lengths * length^2) to record, for the number of distinct
+ * lengths in the fleet, plus one scan of the board to choose the next shot. A sinking
+ * also takes one ship off the weight of every legal placement of its length, which is a
+ * rescan of the whole board, O(size^2 * length).
+ */
+public class ProbabilityTargeting implements TargetingStrategy {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte MISSED = 1;
+    private static final byte HIT = 2;
+    private static final byte SUNK = 3;
+
+    private int size;
+    private RandomSource random;
+    private byte[] cells = new byte[0];
+
+    /**
+     * Distinct lengths of the ships of the fleet, and the number of unsunk ships of each.
+     */
+    private int[] lengths = new int[0];
+    private int[] afloat = new int[0];
+
+    /**
+     * Whether each ship of the fleet has been reported sunk, by ship id.
+     */
+    private boolean[] sunk = new boolean[0];
+
+    /**
+     * Legal placements of unsunk ships covering each cell.
+     */
+    private int[] density = new int[0];
+
+    /**
+     * Hits on unsunk ships within the legal placements covering each cell, summed over those placements.
+     */
+    private int[] hitDensity = new int[0];
+
+    @Override
+    public void newGame(final int size, final Fleet fleet, final RandomSource random) {
+        this.size = size;
+        this.random = random;
+        if (cells.length != size * size) {
+            cells = new byte[size * size];
+            density = new int[size * size];
+            hitDensity = new int[size * size];
+        } else {
+            Arrays.fill(cells, UNKNOWN);
+            Arrays.fill(density, 0);
+            Arrays.fill(hitDensity, 0);
+        }
+
+        countLengths(fleet);
+        for (int k = 0; k < lengths.length; k++) {
+            final int length = lengths[k];
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x + length <= size; x++) {
+                    add(y * size + x, 1, length, afloat[k], 0);
+                    add(x * size + y, size, length, afloat[k], 0);
+                }
+            }
+        }
+    }
+
+    private void countLengths(final Fleet fleet) {
+        final int[] ships = new int[fleet.getLongest() + 1];
+        int distinct = 0;
+        for (Ship ship : fleet.getShips()) {
+            if (ships[ship.getLength()]++ == 0) {
+                distinct++;
+            }
+        }
+        lengths = new int[distinct];
+        afloat = new int[distinct];
+        for (int length = 0, k = 0; length < ships.length; length++) {
+            if (ships[length] > 0) {
+                lengths[k] = length;
+                afloat[k++] = ships[length];
+            }
+        }
+
+        if (sunk.length != fleet.size()) {
+            sunk = new boolean[fleet.size()];
+        } else {
+            Arrays.fill(sunk, false);
+        }
+    }
+
+    /**
+     * Fire at the unknown cell with the most placements through unsunk hits, or failing
+     * that the most placements overall. The scan starts at a random cell to break ties.
+     */
+    @Override
+    public int nextShot() {
+        final int cellCount = cells.length;
+        final int start = random.nextInt(cellCount);
+
+        // Two passes rather than wrapping the index on every square.
+        int best = scan(start, cellCount, -1);
+        best = scan(0, start, best);
+
+        if (best < 0) {
+            throw new IllegalStateException("No cells left to strike.");
+        }
+        return Coordinate.pack(best % size, best / size);
+    }
+
+    /**
+     * Return the unknown square in [from, to) with the most hit-adjacent
+     * placements, then the most placements overall, or best if none beats it.
+     */
+    private int scan(final int from, final int to, int best) {
+        int bestHits = best < 0 ? -1 : hitDensity[best];
+        int bestDensity = best < 0 ? -1 : density[best];
+        for (int i = from; i < to; i++) {
+            if (cells[i] == UNKNOWN) {
+                final int hits = hitDensity[i];
+                if (hits > bestHits || (hits == bestHits && density[i] > bestDensity)) {
+                    bestHits = hits;
+                    bestDensity = density[i];
+                    best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void record(final int packedCoord, final Outcome outcome, final Ship ship) {
+        if (packedCoord == Coordinate.INVALID) {
+            return;
+        }
+        final int x = Coordinate.unpackX(packedCoord);
+        final int y = Coordinate.unpackY(packedCoord);
+        if (x >= size || y >= size || cells[y * size + x] != UNKNOWN) {
+            return;
+        }
+
+        final int cell = y * size + x;
+        switch (outcome) {
+            case MISS:
+                block(cell, MISSED);
+                break;
+            case HIT:
+                hit(cell);
+                break;
+            case SUNK:
+                hit(cell);
+                sink(cell, ship);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Mark a cell as a miss or as part of a sunk ship, dropping every placement crossing it.
+     */
+    private void block(final int cell, final byte status) {
+        for (int k = 0; k < lengths.length; k++) {
+            if (afloat[k] > 0) {
+                forEachPlacementCrossing(cell, lengths[k], afloat[k], false);
+            }
+        }
+        cells[cell] = status;
+    }
+
+    /**
+     * Mark a cell as hit, weighting every legal placement crossing it by one more hit.
+     */
+    private void hit(final int cell) {
+        for (int k = 0; k < lengths.length; k++) {
+            if (afloat[k] > 0) {
+                forEachPlacementCrossing(cell, lengths[k], afloat[k], true);
+            }
+        }
+        cells[cell] = HIT;
+    }
+
+    private void sink(final int cell, final Ship ship) {
+        if (ship == null || ship.getId() >= sunk.length || sunk[ship.getId()]) {
+            return;
+        }
+
+        // the sunk ship no longer occupies any placement
+        final int length = ship.getLength();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x + length <= size; x++) {
+                remove(y * size + x, 1, length);
+                remove(x * size + y, size, length);
+            }
+        }
+        sunk[ship.getId()] = true;
+        afloat[Arrays.binarySearch(lengths, length)]--;
+
+        // its cells are known only if exactly one line of hits of its length runs through the sinking shot
+        int found = -1;
+        int foundStep = 0;
+        final int x = cell % size;
+        final int y = cell / size;
+        for (int from = Math.max(0, x - length + 1); from <= Math.min(x, size - length); from++) {
+            if (countHits(y * size + from, 1, length) == length) {
+                if (found >= 0) {
+                    return;
+                }
+                found = y * size + from;
+                foundStep = 1;
+            }
+        }
+        for (int from = Math.max(0, y - length + 1); from <= Math.min(y, size - length); from++) {
+            if (countHits(from * size + x, size, length) == length) {
+                if (found >= 0) {
+                    return;
+                }
+                found = from * size + x;
+                foundStep = size;
+            }
+        }
+
+        for (int i = 0; found >= 0 && i < length; i++) {
+            block(found + i * foundStep, SUNK);
+        }
+    }
+
+    /**
+     * For every legal placement of the given length crossing a cell, held by weight
+     * unsunk ships, add weight to the hit density of its cells when addHit is set, or
+     * else drop the placement, taking weight from the density of its cells and weight
+     * times the placement's hits from their hit density.
+     */
+    private void forEachPlacementCrossing(final int cell, final int length, final int weight, final boolean addHit) {
+        final int x = cell % size;
+        final int y = cell / size;
+
+        for (int from = Math.max(0, x - length + 1); from <= Math.min(x, size - length); from++) {
+            adjust(y * size + from, 1, length, weight, addHit);
+        }
+        for (int from = Math.max(0, y - length + 1); from <= Math.min(y, size - length); from++) {
+            adjust(from * size + x, size, length, weight, addHit);
+        }
+    }
+
+    private void adjust(final int first, final int step, final int length, final int weight, final boolean addHit) {
+        final int hits = countHits(first, step, length);
+        if (hits < 0) {
+            return;
+        }
+        if (addHit) {
+            add(first, step, length, 0, weight);
+        } else {
+            add(first, step, length, -weight, -weight * hits);
+        }
+    }
+
+    /**
+     * Remove a placement of one ship from both heat maps if it is legal.
+     */
+    private void remove(final int first, final int step, final int length) {
+        final int hits = countHits(first, step, length);
+        if (hits >= 0) {
+            add(first, step, length, -1, -hits);
+        }
+    }
+
+    private void add(final int first, final int step, final int length, final int densityDelta, final int hitDelta) {
+        for (int i = 0, cell = first; i < length; i++, cell += step) {
+            density[cell] += densityDelta;
+            hitDensity[cell] += hitDelta;
+        }
+    }
+
+    /**
+     * @return the number of hits on unsunk ships within a placement, or -1 if the placement is not legal
+     */
+    private int countHits(final int first, final int step, final int length) {
+        int hits = 0;
+        for (int i = 0, cell = first; i < length; i++, cell += step) {
+            final byte status = cells[cell];
+            if (status == MISSED || status == SUNK) {
+                return -1;
+            }
+            if (status == HIT) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    int[] getDensity() {
+        return density;
+    }
+
+    int[] getHitDensity() {
+        return hitDensity;
+    }
+
+    /**
+     * Recompute both heat maps from scratch. Exposed for testing only.
+     *
+     * @return the density and hit density of each cell
+     */
+    int[][] recompute() {
+        final int[] savedDensity = density;
+        final int[] savedHitDensity = hitDensity;
+        density = new int[cells.length];
+        hitDensity = new int[cells.length];
+
+        for (int k = 0; k < lengths.length; k++) {
+            final int length = lengths[k];
+            final int weight = afloat[k];
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x + length <= size; x++) {
+                    final int horizontalHits = countHits(y * size + x, 1, length);
+                    if (horizontalHits >= 0) {
+                        add(y * size + x, 1, length, weight, weight * horizontalHits);
+                    }
+                    final int verticalHits = countHits(x * size + y, size, length);
+                    if (verticalHits >= 0) {
+                        add(x * size + y, size, length, weight, weight * verticalHits);
+                    }
+                }
+            }
+        }
+
+        final int[][] heatMaps = {density, hitDensity};
+        density = savedDensity;
+        hitDensity = savedHitDensity;
+        return heatMaps;
+    }
+}
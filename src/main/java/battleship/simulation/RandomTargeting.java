@@ -0,0 +1,48 @@
+package battleship.simulation;
+
+import battleship.model.Coordinate;
+import battleship.model.Fleet;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
+import battleship.model.Ship;
+
+/**
+ * Fires at every cell exactly once, in a uniformly random order.
+ */
+public class RandomTargeting implements TargetingStrategy {
+
+    private int[] remaining = new int[0];
+    private int count;
+    private RandomSource random;
+
+    @Override
+    public void newGame(final int size, final Fleet fleet, final RandomSource random) {
+        this.random = random;
+        if (remaining.length != size * size) {
+            remaining = new int[size * size];
+        }
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                remaining[y * size + x] = Coordinate.pack(x, y);
+            }
+        }
+        count = remaining.length;
+    }
+
+    /**
+     * Draws without replacement by swapping the chosen cell out of the remaining ones.
+     */
+    @Override
+    public int nextShot() {
+        final int i = random.nextInt(count);
+        final int shot = remaining[i];
+        remaining[i] = remaining[--count];
+        remaining[count] = shot;
+        return shot;
+    }
+
+    @Override
+    public void record(final int packedCoord, final Outcome outcome, final Ship sunk) {
+    }
+}
@@ -0,0 +1,98 @@
+package battleship.simulation;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Distribution of the number of shots taken to win a batch of simulated games.
+ */
+public final class SimulationReport {
+
+    private final long[] histogram;
+    private final long games;
+    private final long elapsedNanos;
+
+    /**
+     * @param histogram    number of games won in exactly i shots, at index i
+     * @param elapsedNanos wall-clock time taken to play all the games
+     */
+    SimulationReport(final long[] histogram, final long elapsedNanos) {
+        long games = 0;
+        for (long count : histogram) {
+            games += count;
+        }
+
+        this.histogram = histogram;
+        this.games = games;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return number of games won in exactly i shots, at index i
+     */
+    public long[] getHistogram() {
+        return Arrays.copyOf(histogram, histogram.length);
+    }
+
+    public double getMean() {
+        double total = 0;
+        for (int shots = 0; shots < histogram.length; shots++) {
+            total += (double) shots * histogram[shots];
+        }
+        return games == 0 ? 0 : total / games;
+    }
+
+    /**
+     * @param percentile in (0, 100]
+     * @return the least number of shots within which the given percentage of games were won
+     */
+    public int getPercentile(final double percentile) {
+        final double rank = Math.ceil(games * percentile / 100.0);
+        long seen = 0;
+        for (int shots = 0; shots < histogram.length; shots++) {
+            seen += histogram[shots];
+            if (seen > 0 && seen >= rank) {
+                return shots;
+            }
+        }
+        return 0;
+    }
+
+    public int getMin() {
+        for (int shots = 0; shots < histogram.length; shots++) {
+            if (histogram[shots] > 0) {
+                return shots;
+            }
+        }
+        return 0;
+    }
+
+    public int getMax() {
+        for (int shots = histogram.length - 1; shots >= 0; shots--) {
+            if (histogram[shots] > 0) {
+                return shots;
+            }
+        }
+        return 0;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "games=%d, games/s=%.0f, mean=%.2f, min=%d, p50=%d, p90=%d, p99=%d, max=%d",
+                games, getGamesPerSecond(), getMean(), getMin(),
+                getPercentile(50), getPercentile(90), getPercentile(99), getMax());
+    }
+}
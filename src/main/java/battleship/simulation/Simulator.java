@@ -0,0 +1,189 @@
+package battleship.simulation;
+
+import battleship.model.Coordinate;
+import battleship.model.Fleet;
+import battleship.model.Grid;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
+import battleship.model.SplittableRandomSource;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays complete games headlessly, with no user interface, to evaluate a targeting
+ * strategy. Games are split across a fork/join pool; each leaf task lays out its
+ * own grids and drives its own strategy with its own random source, split from the
+ * source seeded by the simulation seed as the range of games is divided. The tree
+ * of splits depends only on the number of games, so a given seed always gives the
+ * same results regardless of how work is scheduled, and no random state is shared.
+ * <p>
+ * Each task's histogram of shots per game only grows as far as the longest game it
+ * has seen, so its size follows the games actually played rather than the size of
+ * the grid.
+ */
+public class Simulator {
+
+    /**
+     * Number of games below which a task plays its games rather than splitting further.
+     */
+    static final int GAMES_PER_TASK = 256;
+
+    /**
+     * Most shots any game may take, so that every count of shots indexes a histogram.
+     */
+    static final int MAX_SHOTS = Integer.MAX_VALUE - 8;
+
+    private final int size;
+    private final Fleet fleet;
+    private final Supplier<? extends TargetingStrategy> strategies;
+    private final int maxShots;
+
+    /**
+     * @param size       of each side of the grid of every game
+     * @param strategies creates one strategy for each worker task
+     */
+    public Simulator(final int size, final Supplier<? extends TargetingStrategy> strategies) {
+        this(size, Fleet.STANDARD, strategies);
+    }
+
+    /**
+     * @param size       of each side of the grid of every game
+     * @param fleet      laid out on the grid of every game
+     * @param strategies creates one strategy for each worker task
+     * @throws IllegalArgumentException if the size is too large or too small for the fleet
+     */
+    public Simulator(final int size, final Fleet fleet, final Supplier<? extends TargetingStrategy> strategies) {
+        newGrid(size, fleet); // validates the size up front
+
+        this.size = size;
+        this.fleet = fleet;
+        this.strategies = strategies;
+        this.maxShots = (int) Math.min(4L * size * size, MAX_SHOTS);
+    }
+
+    /**
+     * Play the given number of games on the common fork/join pool.
+     */
+    public SimulationReport run(final long games, final long seed) {
+        return run(games, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Play the given number of games on the given pool.
+     *
+     * @throws IllegalStateException if a strategy takes more than 4 * size * size shots to win a game
+     */
+    public SimulationReport run(final long games, final long seed, final ForkJoinPool pool) {
+        final long start = System.nanoTime();
+        final long[] histogram = pool.invoke(new Games(0, games, new SplittableRandomSource(seed)));
+        int length = histogram.length;
+        while (length > 0 && histogram[length - 1] == 0) {
+            length--;
+        }
+        return new SimulationReport(Arrays.copyOf(histogram, length), System.nanoTime() - start);
+    }
+
+    /**
+     * Play one game to the end.
+     *
+     * @return the number of shots taken to sink every ship
+     */
+    int play(final Grid grid, final TargetingStrategy strategy, final RandomSource random) {
+        grid.placeAllShipsRandomly(random);
+        strategy.newGame(size, grid.getFleet(), random);
+
+        int shots = 0;
+        while (grid.areAnyShipsAfloat()) {
+            if (++shots > maxShots) {
+                throw new IllegalStateException("Strategy did not win within " + maxShots + " shots.");
+            }
+
+            final int shot = strategy.nextShot();
+            final Outcome outcome = grid.tryStrike(shot);
+            strategy.record(shot, outcome, outcome == Outcome.SUNK ?
+                    grid.getRevealedShip(Coordinate.unpackX(shot), Coordinate.unpackY(shot)) : null);
+        }
+        return shots;
+    }
+
+    /**
+     * Plays games [from, to), returning how many were won in each number of shots.
+     */
+    private class Games extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final RandomSource random;
+
+        Games(final long from, final long to, final RandomSource random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > GAMES_PER_TASK) {
+                final long middle = (from + to) >>> 1;
+                final Games left = new Games(from, middle, random.split());
+                left.fork();
+                final long[] right = new Games(middle, to, random).compute();
+                final long[] leftHistogram = left.join();
+
+                // add the shorter histogram into the longer
+                final long[] histogram = right.length >= leftHistogram.length ? right : leftHistogram;
+                final long[] other = histogram == right ? leftHistogram : right;
+                for (int i = 0; i < other.length; i++) {
+                    histogram[i] += other[i];
+                }
+                return histogram;
+            }
+
+            long[] histogram = new long[0];
+            final Grid grid = newGrid(size, fleet);
+            final TargetingStrategy strategy = strategies.get();
+            for (long game = from; game < to; game++) {
+                final int shots = play(grid, strategy, random);
+                if (shots >= histogram.length) {
+                    // double to keep growth amortized, but never past the longest game allowed
+                    histogram = Arrays.copyOf(histogram,
+                            (int) Math.min(Math.max(shots + 1L, 2L * histogram.length), maxShots + 1L));
+                }
+                histogram[shots]++;
+            }
+            return histogram;
+        }
+    }
+
+    private static Grid newGrid(final int size, final Fleet fleet) {
+        return new Grid(size, Grid.DEFAULT_STORAGE, fleet, Grid.Placement.UNIFORM);
+    }
+
+    /**
+     * Main entry point for headless simulation of a targeting strategy
+     * @param args 0:size of grid, 1:number of games, 2:seed, 3:strategy, random or probability
+     */
+    public static void main(final String[] args) {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : Grid.DEFAULT_SIZE;
+        final long games = args.length > 1 ? Long.parseLong(args[1]) : 1000000;
+        final long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        final boolean probability = args.length > 3 && "probability".equals(args[3]);
+
+        final SimulationReport report = new Simulator(size, new Supplier<TargetingStrategy>() {
+            @Override
+            public TargetingStrategy get() {
+                return probability ? new ProbabilityTargeting() : new RandomTargeting();
+            }
+        }).run(games, seed);
+
+        System.out.println(report);
+        final long[] histogram = report.getHistogram();
+        for (int shots = report.getMin(); shots <= report.getMax(); shots++) {
+            System.out.println(shots + "\t" + histogram[shots]);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package battleship.simulation;
+
+import battleship.model.Fleet;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
+import battleship.model.Ship;
+
+/**
+ * Chooses where to fire in a headless game. An instance plays one game at a time
+ * and is reused for the next game after newGame; it is never shared between threads.
+ */
+public interface TargetingStrategy {
+
+    /**
+     * Start a new game against a freshly laid out grid.
+     *
+     * @param size   of each side of the grid
+     * @param fleet  laid out on the grid
+     * @param random source of randomness owned by the calling worker
+     */
+    void newGame(int size, Fleet fleet, RandomSource random);
+
+    /**
+     * @return the next coordinate to strike, packed with Coordinate.pack
+     */
+    int nextShot();
+
+    /**
+     * Learn the outcome of the shot last returned by nextShot.
+     *
+     * @param packedCoord the coordinate struck
+     * @param outcome     outcome of the strike
+     * @param sunk        the ship sunk by this shot when the outcome is SUNK; else null
+     */
+    void record(int packedCoord, Outcome outcome, Ship sunk);
+}
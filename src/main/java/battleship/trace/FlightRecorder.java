@@ -0,0 +1,210 @@
+package battleship.trace;
+
+import battleship.model.Coordinate;
+import battleship.model.Fleet;
+import battleship.model.MoveListener;
+import battleship.model.Orientation;
+import battleship.model.Outcome;
+import battleship.model.Ship;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the last moves of a game in a fixed ring of longs, so that how a board got
+ * into its state can be dumped when something goes wrong without logging every move
+ * as it happens. Each move is the change it made to the board: a ship placed, or a
+ * square struck and its outcome, packed into one long. Recording allocates nothing
+ * and may be done from several threads at once, as on a ConcurrentGrid. Each slot is
+ * guarded like a seqlock: a writer marks the slot busy, writes its move and then its
+ * sequence number, and a dump keeps a move only if it reads the same sequence number
+ * before and after it, so a dump taken while moves are being recorded skips the
+ * entries overwritten under it rather than showing them under another number. A
+ * writer waits only for another a whole ring of moves ahead of it on the same slot.
+ * <p>
+ * Squares are kept packed with Coordinate.pack, so on a grid larger than
+ * Coordinate.PACKED_LIMIT a square beyond the limit is dumped as ?,? rather than
+ * as some other square.
+ * <p>
+ * Set a recorder as the grid's MoveListener; moves are passed on to the next
+ * listener, if any, such as a MoveJournal.
+ */
+public class FlightRecorder implements MoveListener {
+
+    private static final Orientation[] ORIENTATIONS = Orientation.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final long EMPTY = -1;
+    private static final long BUSY = Long.MIN_VALUE;
+
+    private final Fleet fleet;
+    private final MoveListener next;
+    private final int mask;
+    private final AtomicLong recorded = new AtomicLong();
+
+    /**
+     * Move recorded in each slot, and the sequence number of the move; EMPTY until the
+     * slot is first written and BUSY while it is being written.
+     */
+    private final AtomicLongArray moves;
+    private final AtomicLongArray sequences;
+
+    /**
+     * Create a recorder of a game of the standard fleet.
+     *
+     * @param capacity number of most recent moves kept; rounded up to a power of two
+     * @param next     listener to pass every move on to, or null
+     */
+    public FlightRecorder(final int capacity, final MoveListener next) {
+        this(capacity, Fleet.STANDARD, next);
+    }
+
+    /**
+     * @param capacity number of most recent moves kept; rounded up to a power of two
+     * @param fleet    of the game, naming the ships placed in a dump
+     * @param next     listener to pass every move on to, or null
+     */
+    public FlightRecorder(final int capacity, final Fleet fleet, final MoveListener next) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+        }
+        this.moves = new AtomicLongArray(capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1);
+        this.sequences = new AtomicLongArray(moves.length());
+        this.mask = moves.length() - 1;
+        this.fleet = fleet;
+        this.next = next;
+        for (int i = 0; i < sequences.length(); i++) {
+            sequences.set(i, EMPTY);
+        }
+    }
+
+    @Override
+    public void placed(final Ship ship, final int x, final int y, final Orientation orientation) {
+        record(Coordinate.pack(x, y), Outcome.PLACED, ship.getId(), orientation.ordinal());
+        if (next != null) {
+            next.placed(ship, x, y, orientation);
+        }
+    }
+
+    @Override
+    public void struck(final int x, final int y, final Outcome outcome) {
+        record(Coordinate.pack(x, y), outcome, 0, 0);
+        if (next != null) {
+            next.struck(x, y, outcome);
+        }
+    }
+
+    private void record(final int packed, final Outcome outcome, final int ship, final int orientation) {
+        final long sequence = recorded.getAndIncrement();
+        final int slot = (int) sequence & mask;
+
+        // claim the slot from the move it holds, unless a later move already has it
+        while (true) {
+            final long held = sequences.get(slot);
+            if (held > sequence) {
+                return;
+            }
+            if (held != BUSY && sequences.compareAndSet(slot, held, BUSY)) {
+                break;
+            }
+            Thread.yield();
+        }
+        moves.set(slot, (packed & 0xFFFFFFFFL) | (long) outcome.ordinal() << 32 | (long) ship << 40
+                | (long) orientation << 63);
+        sequences.set(slot, sequence);
+    }
+
+    /**
+     * @return number of moves recorded since the recorder was created
+     */
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    /**
+     * @return number of most recent moves kept
+     */
+    public int getCapacity() {
+        return moves.length();
+    }
+
+    /**
+     * Write the moves kept, oldest first, one per line, as
+     * <pre>
+     *   #sequence PLACED SHIP x,y ORIENTATION
+     *   #sequence OUTCOME x,y
+     * </pre>
+     * where ships of fleets other than the standard one are followed by their id, as SHIP#id.
+     *
+     * @throws UncheckedIOException if the Appendable fails
+     */
+    public void dump(final Appendable out) {
+        final long end = recorded.get();
+        final long start = Math.max(0, end - moves.length());
+        try {
+            if (start > 0) {
+                out.append("... ").append(Long.toString(start)).append(" earlier moves\n");
+            }
+            for (long sequence = start; sequence < end; sequence++) {
+                final int slot = (int) sequence & mask;
+                if (sequences.get(slot) != sequence) {
+                    continue; // not yet written, or already overwritten
+                }
+                final long move = moves.get(slot);
+                if (sequences.get(slot) != sequence) {
+                    continue; // overwritten while it was read
+                }
+
+                final int packed = (int) move;
+                final Outcome outcome = OUTCOMES[(int) (move >>> 32) & 0xFF];
+                out.append('#').append(Long.toString(sequence)).append(' ').append(outcome.name());
+                if (outcome == Outcome.PLACED) {
+                    final int ship = (int) (move >>> 40) & (Fleet.MAX_SHIPS - 1);
+                    out.append(' ').append(ship < fleet.size() ? fleet.get(ship).getName() : "SHIP");
+                    if (fleet != Fleet.STANDARD) {
+                        out.append('#').append(Integer.toString(ship));
+                    }
+                }
+                if (packed == Coordinate.INVALID) {
+                    out.append(" ?,?");
+                } else {
+                    out.append(' ').append(Integer.toString(Coordinate.unpackX(packed)))
+                       .append(',').append(Integer.toString(Coordinate.unpackY(packed)));
+                }
+                if (outcome == Outcome.PLACED) {
+                    out.append(' ').append(ORIENTATIONS[(int) (move >>> 63)].name());
+                }
+                out.append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the moves kept, as written by dump
+     */
+    @Override
+    public String toString() {
+        final StringBuilder out = new StringBuilder();
+        dump(out);
+        return out.toString();
+    }
+
+    /**
+     * Log the moves kept with the given message, formatting them only if the logger
+     * is enabled for the level.
+     */
+    public void log(final Logger log, final Level level, final String message) {
+        log.log(level, new Supplier<String>() {
+            @Override
+            public String get() {
+                return message + "\n" + FlightRecorder.this;
+            }
+        });
+    }
+}
@@ -0,0 +1,191 @@
+package battleship.view;
+
+import battleship.model.Grid;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Batches everything a console shows in a round into one frame, written with a single
+ * write and flush. On an ANSI terminal the grid stays in place at the top of the
+ * screen and each frame redraws, by cursor addressing, only the squares whose display
+ * changed since the last frame, followed by the round's messages below the grid. A
+ * grid larger than the terminal is shown through a viewport that scrolls to keep the
+ * last focused square in view, with a status line giving its position. Without ANSI,
+ * frames are the grid and messages as plain lines.
+ */
+class AnsiRenderer {
+
+    private static final String ESC = "\u001b[";
+
+    /**
+     * Rows below the grid kept for messages and the player's input.
+     */
+    static final int MESSAGE_ROWS = 8;
+
+    private final Writer out;
+    private final boolean ansi;
+    private final int columns;
+    private final int rows;
+    private final StringBuilder frame = new StringBuilder();
+    private final StringBuilder messages = new StringBuilder();
+    private int messageLines;
+
+    private Grid grid;
+    private int focusX;
+    private int focusY;
+
+    /**
+     * Squares on screen, as last drawn; '\0' where the screen is not known to hold a square.
+     */
+    private char[] shown;
+    private int viewWidth;
+    private int viewHeight;
+    private int originX = -1;
+    private int originY = -1;
+    private boolean redraw = true;
+
+    /**
+     * @param out     of frames
+     * @param ansi    whether the terminal understands ANSI escapes
+     * @param columns of the terminal
+     * @param rows    of the terminal
+     */
+    AnsiRenderer(final Writer out, final boolean ansi, final int columns, final int rows) {
+        this.out = out;
+        this.ansi = ansi;
+        this.columns = Math.max(1, columns);
+        this.rows = Math.max(MESSAGE_ROWS + 2, rows);
+    }
+
+    /**
+     * Add a line to the next frame.
+     */
+    void message(final String line) {
+        messages.append(line).append('\n');
+        messageLines++;
+        for (int i = line.indexOf('\n'); i >= 0; i = line.indexOf('\n', i + 1)) {
+            messageLines++;
+        }
+    }
+
+    /**
+     * Show the given grid from the next frame on.
+     */
+    void grid(final Grid grid) {
+        if (!ansi) {
+            messages.append('\n');
+            try {
+                grid.render(true, messages);
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // a StringBuilder does not fail
+            }
+            messages.append('\n');
+            return;
+        }
+        if (grid != this.grid) {
+            this.grid = grid;
+            viewWidth = Math.min(grid.getSize(), columns);
+            viewHeight = Math.min(grid.getSize(), rows - MESSAGE_ROWS - 1);
+            shown = new char[viewWidth * viewHeight];
+            originX = -1;
+            redraw = true;
+        }
+    }
+
+    /**
+     * Scroll the viewport, if the grid does not fit on screen, so that the given square
+     * is in view from the next frame on.
+     */
+    void focus(final int x, final int y) {
+        focusX = x;
+        focusY = y;
+    }
+
+    /**
+     * Write everything added since the last frame as one frame.
+     */
+    void flush() throws IOException {
+        frame.setLength(0);
+        if (ansi && grid != null) {
+            drawGrid();
+        }
+        frame.append(messages);
+        messages.setLength(0);
+
+        if (ansi && grid != null && messageLines + 1 > MESSAGE_ROWS) {
+            // the messages and the player's input scrolled the screen under the grid
+            redraw = true;
+        }
+        messageLines = 0;
+
+        out.append(frame);
+        out.flush();
+    }
+
+    private void drawGrid() {
+        if (redraw) {
+            frame.append(ESC).append("H").append(ESC).append("2J");
+            for (int i = 0; i < shown.length; i++) {
+                shown[i] = '\0';
+            }
+            originX = -1;
+            redraw = false;
+        }
+
+        final int size = grid.getSize();
+        final int x0 = scroll(originX, focusX, viewWidth, size);
+        final int y0 = scroll(originY, focusY, viewHeight, size);
+        final boolean scrolled = x0 != originX || y0 != originY;
+        originX = x0;
+        originY = y0;
+
+        // squares drawn one after another need no cursor movement between them
+        int cursorRow = -1;
+        int cursorColumn = -1;
+        for (int row = 0; row < viewHeight; row++) {
+            for (int column = 0; column < viewWidth; column++) {
+                final char square = grid.display(x0 + column, y0 + row, true);
+                final int i = row * viewWidth + column;
+                if (shown[i] == square) {
+                    continue;
+                }
+                if (row != cursorRow || column != cursorColumn) {
+                    moveTo(row, column);
+                }
+                frame.append(square);
+                shown[i] = square;
+                cursorRow = row;
+                cursorColumn = column + 1;
+            }
+        }
+
+        if (scrolled && (viewWidth < size || viewHeight < size)) {
+            moveTo(viewHeight, 0);
+            frame.append(ESC).append("2K")
+                 .append("x ").append(x0).append('-').append(x0 + viewWidth - 1)
+                 .append(", y ").append(y0).append('-').append(y0 + viewHeight - 1)
+                 .append(" of ").append(size);
+        }
+
+        moveTo(viewHeight + 1, 0);
+        frame.append(ESC).append("J");
+    }
+
+    /**
+     * @return the first square of a viewport that moves no further than it must to show focus
+     */
+    private static int scroll(final int origin, final int focus, final int view, final int size) {
+        int first = Math.max(origin, 0);
+        if (focus < first) {
+            first = focus;
+        } else if (focus >= first + view) {
+            first = focus - view + 1;
+        }
+        return Math.max(0, Math.min(first, size - view));
+    }
+
+    private void moveTo(final int row, final int column) {
+        frame.append(ESC).append(row + 1).append(';').append(column + 1).append('H');
+    }
+}
@@ -0,0 +1,26 @@
+package battleship.view;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface with the user whose input arrives asynchronously, so that a game waiting
+ * for the user holds no thread. Games driven through Game.playAsync resume on the
+ * thread that completes each input.
+ */
+public interface AsyncUserInterface extends UserInterface {
+
+    /**
+     * Request the next line of user input.
+     * @return Completed with the line once the user has entered it.
+     */
+    CompletableFuture<String> inAsync();
+
+    /**
+     * Read a string from the user, blocking the calling thread until it arrives.
+     * @return Most recent line of user input.
+     */
+    @Override
+    default String in() {
+        return inAsync().join();
+    }
+}
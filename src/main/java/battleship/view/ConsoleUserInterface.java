@@ -1,31 +1,95 @@
 package battleship.view;
 
+import battleship.config.RuntimeConfiguration;
 import battleship.model.Grid;
+import battleship.model.RandomSource;
+import battleship.model.SplittableRandomSource;
 import battleship.controller.Game;
+import battleship.persistence.MoveJournal;
+import battleship.trace.FlightRecorder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 
 /**
  * Implementation for standard Java console.
  */
 class ConsoleUserInterface implements UserInterface {
 
+    /**
+     * Moves kept to show if the game fails.
+     */
+    private static final int RECORDED_MOVES = 64;
+
+    private final AnsiRenderer renderer;
+
+    ConsoleUserInterface() {
+        final String term = System.getenv("TERM");
+        renderer = new AnsiRenderer(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16),
+                                    term != null && !term.equals("dumb"),
+                                    dimension("COLUMNS", 80), dimension("LINES", 24));
+    }
+
+    private static int dimension(final String variable, final int otherwise) {
+        try {
+            return Integer.parseInt(System.getenv(variable));
+        } catch (NumberFormatException e) {
+            return otherwise;
+        }
+    }
+
     @Override
     public String in() {
-        return System.console().readLine();
+        flush();
+        final String line = System.console().readLine();
+        if (line == null) {
+            return null;
+        }
+
+        // keep the square last aimed at in view, taking the last of a salvo
+        final String[] coords = line.trim().replaceFirst(".*\\s", "").split(",");
+        if (coords.length == 2) {
+            try {
+                renderer.focus(Integer.parseInt(coords[0].trim()), Integer.parseInt(coords[1].trim()));
+            } catch (NumberFormatException e) {
+                // not a coordinate; the game will say so
+            }
+        }
+        return line;
     }
 
     @Override
     public void out(final String s) {
-        System.out.println(s);
+        renderer.message(s);
+    }
+
+    @Override
+    public void showGrid(final Grid grid) {
+        renderer.grid(grid);
+    }
+
+    @Override
+    public void flush() {
+        try {
+            renderer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
      * Main entry point for console-based game
-     * @param args 0:size of grid
+     * @param args 0:size of grid, 1:"salvo" to play salvo rules, 2:seed to reproduce a game,
+     *             3:journal file to record the game's moves to, under its start time as id
      */
-    public static void main(final String[] args) {
+    public static void main(final String[] args) throws IOException {
         final ConsoleUserInterface ui = new ConsoleUserInterface();
 
-        int gridSize = Grid.DEFAULT_SIZE;
+        final RuntimeConfiguration configuration = RuntimeConfiguration.current();
+        int gridSize = configuration.gridSize;
 
         // user-input grid size
         if(args.length > 0 && args[0] != null) {
@@ -33,10 +97,43 @@ class ConsoleUserInterface implements UserInterface {
                 gridSize = Integer.valueOf(args[0]);
             } catch (NumberFormatException e) {
                 ui.out("Invalid argument");
+                ui.flush();
                 return;
             }
         }
 
-        new Game(new Grid(gridSize), ui).play();
+        final Game.Mode mode = args.length > 1 && "salvo".equalsIgnoreCase(args[1]) ?
+                               Game.Mode.SALVO : Game.Mode.CLASSIC;
+
+        RandomSource random = null;
+        if (args.length > 2) {
+            try {
+                random = new SplittableRandomSource(Long.parseLong(args[2]));
+            } catch (NumberFormatException e) {
+                ui.out("Invalid argument");
+                ui.flush();
+                return;
+            }
+        }
+
+        final Grid grid = configuration.newGrid(gridSize);
+        final MoveJournal journal = args.length > 3 ? new MoveJournal(Paths.get(args[3])) : null;
+        try {
+            final FlightRecorder recorder = new FlightRecorder(RECORDED_MOVES, grid.getFleet(), journal == null ?
+                    null : journal.newGame(System.currentTimeMillis(), gridSize, grid.getFleet()));
+            grid.setMoveListener(recorder);
+            try {
+                new Game(grid, ui, mode, random).play();
+            } catch (RuntimeException e) {
+                ui.flush();
+                System.err.println("Game failed after these moves:");
+                recorder.dump(System.err);
+                throw e;
+            }
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+        }
     }
 }
@@ -1,5 +1,7 @@
 package battleship.view;
 
+import battleship.model.Grid;
+
 /**
  * Interface with the user to control textual input and output.
  */
@@ -16,4 +18,19 @@ public interface UserInterface {
      * @param s
      */
     void out(String s);
+
+    /**
+     * Display the grid to the user, masked.
+     * @param grid
+     */
+    default void showGrid(final Grid grid) {
+        out("\n" + grid.display(true));
+    }
+
+    /**
+     * Make sure everything output so far has reached the user. Called when the game
+     * ends; interfaces that batch output also flush it before reading input.
+     */
+    default void flush() {
+    }
 }
@@ -0,0 +1,119 @@
+package battleship.config;
+
+import battleship.model.Fleet;
+import battleship.model.Grid;
+import battleship.model.Ship;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class RuntimeConfigurationTest extends TestCase {
+
+    private static InputStream xml(final String body) {
+        return new ByteArrayInputStream(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<configs>" + body
+                + "</configs>").getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void testDefaults() throws Exception {
+        final RuntimeConfiguration configuration = RuntimeConfiguration.current();
+        assertEquals(Configuration.gridSize, configuration.gridSize);
+        assertEquals(Configuration.debugMode, configuration.debugMode);
+        assertNull(configuration.storage);
+        assertEquals(Grid.Placement.UNIFORM, configuration.placement);
+        assertEquals(Fleet.STANDARD, configuration.fleet);
+        assertSame(configuration, RuntimeConfiguration.current());
+
+        final RuntimeConfiguration empty = RuntimeConfiguration.load(xml(""));
+        assertEquals(Configuration.gridSize, empty.gridSize);
+        assertEquals(Fleet.STANDARD, empty.fleet);
+    }
+
+    public void testLoad() throws Exception {
+        final RuntimeConfiguration configuration = RuntimeConfiguration.load(xml(
+                "<config><name>gridSize</name><value>6</value><type>int</type></config>"
+                        + "<engine storage=\"SPARSE\" placement=\"REJECTION\"/>"
+                        + "<fleet><ship name=\"SUBMARINE\" length=\"3\"/><ship name=\"PATROL\" count=\"1\"/></fleet>"));
+        assertEquals(6, configuration.gridSize);
+        assertEquals(Grid.Storage.SPARSE, configuration.storage);
+        assertEquals(Grid.Placement.REJECTION, configuration.placement);
+        assertEquals(Fleet.of(Ship.SUBMARINE, Ship.PATROL), configuration.fleet);
+
+        final Grid grid = configuration.newGrid();
+        assertEquals(6, grid.getSize());
+        grid.placeAllShipsRandomly();
+        assertEquals(2, grid.getShipsAfloat());
+    }
+
+    public void testLargeFleet() throws Exception {
+        final RuntimeConfiguration configuration = RuntimeConfiguration.load(xml(
+                "<config><name>gridSize</name><value>100</value><type>int</type></config>"
+                        + "<fleet><ship name=\"PATROL\" count=\"1000\"/>"
+                        + "<ship name=\"CARRIER\" length=\"6\" count=\"50\"/>"
+                        + "<ship name=\"PATROL\" length=\"3\"/></fleet>"));
+        final Fleet fleet = configuration.fleet;
+        assertEquals(1051, fleet.size());
+        assertEquals(Ship.PATROL.getLabelKey(), fleet.get(999).getLabelKey());
+        assertEquals(2, fleet.get(999).getLength());
+        assertEquals("CARRIER", fleet.get(1000).getName());
+        assertNull(fleet.get(1000).getLabelKey());
+        assertEquals(3, fleet.get(1050).getLength());
+
+        final Grid grid = configuration.newGrid();
+        grid.placeAllShipsRandomly();
+        assertEquals(1051, grid.getShipsAfloat());
+    }
+
+    public void testInvalid() throws Exception {
+        final String[] invalid = {
+                "<engine storage=\"TAPE\"/>",
+                "<fleet/>",
+                "<fleet><ship length=\"2\"/></fleet>",
+                "<fleet><ship name=\"PATROL\" length=\"0\"/></fleet>",
+                "<fleet><ship name=\"CARRIER\"/></fleet>",
+                "<fleet><ship name=\"TWO WORDS\" length=\"2\"/></fleet>",
+                "<fleet><ship name=\"PATROL\" count=\"0\"/></fleet>",
+                "<fleet><ship name=\"PATROL\" count=\"99999999999\"/></fleet>",
+                "<config><name>gridSize</name><value>3</value><type>int</type></config>",
+                "<unknown/>"
+        };
+        for (String body : invalid) {
+            try {
+                RuntimeConfiguration.load(xml(body));
+                fail(body);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    public void testReload() throws Exception {
+        final File file = File.createTempFile("config", ".xml");
+        final RuntimeConfiguration original = RuntimeConfiguration.current();
+        System.setProperty(RuntimeConfiguration.FILE_PROPERTY, file.getPath());
+        try {
+            Files.write(file.toPath(), ("<configs><fleet><ship name=\"DESTROYER\"/></fleet></configs>")
+                    .getBytes(StandardCharsets.UTF_8));
+            final RuntimeConfiguration reloaded = RuntimeConfiguration.reload();
+            assertSame(reloaded, RuntimeConfiguration.current());
+            assertEquals(Fleet.of(Ship.DESTROYER), RuntimeConfiguration.current().fleet);
+
+            // an invalid file leaves the current snapshot in place
+            Files.write(file.toPath(), "<configs><fleet/></configs>".getBytes(StandardCharsets.UTF_8));
+            try {
+                RuntimeConfiguration.reload();
+                fail();
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            assertSame(reloaded, RuntimeConfiguration.current());
+        } finally {
+            System.clearProperty(RuntimeConfiguration.FILE_PROPERTY);
+            RuntimeConfiguration.set(original);
+            file.delete();
+        }
+    }
+}
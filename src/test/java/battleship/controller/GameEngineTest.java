@@ -0,0 +1,70 @@
+package battleship.controller;
+
+import battleship.model.Coordinate;
+import battleship.model.Grid;
+import battleship.model.Outcome;
+import battleship.model.Ship;
+import battleship.model.SplittableRandomSource;
+import junit.framework.TestCase;
+
+import java.util.Collections;
+
+public class GameEngineTest extends TestCase {
+
+    private static Grid patrolAtOrigin() {
+        return new Grid() {
+            @Override
+            public void placeAllShipsRandomly() {
+                tryPlace(Ship.PATROL, 0, 0);
+            }
+        };
+    }
+
+    public void testFire() throws Exception {
+        final GameEngine engine = new GameEngine(patrolAtOrigin(), null);
+
+        assertEquals(Outcome.MISS, engine.fire(5, 5));
+        assertNull(engine.getLastSunk());
+        assertEquals(Outcome.OFF_GRID, engine.fire(Grid.DEFAULT_SIZE, 0));
+        assertEquals(Outcome.HIT, engine.fire(0, 0));
+        assertEquals(Outcome.REPEAT, engine.fire(0, 0));
+        assertFalse(engine.isWon());
+
+        assertEquals(Outcome.SUNK, engine.fire(Coordinate.pack(1, 0)));
+        assertEquals(Ship.PATROL, engine.getLastSunk());
+        assertEquals(4, engine.getAttempts());
+        assertTrue(engine.isWon());
+        assertEquals(Outcome.OFF_GRID, engine.fire(Coordinate.INVALID));
+        assertNull(engine.getLastSunk());
+    }
+
+    public void testFireAll() throws Exception {
+        final GameEngine engine = new GameEngine(patrolAtOrigin(), null);
+        final int[] salvo = {Coordinate.pack(0, 0), Coordinate.pack(1, 0), Coordinate.INVALID};
+        final Outcome[] outcomes = new Outcome[salvo.length];
+
+        assertEquals(Collections.singletonList(Ship.PATROL), engine.fireAll(salvo, outcomes));
+        assertEquals(Outcome.OFF_GRID, outcomes[2]);
+        assertEquals(2, engine.getAttempts());
+        assertTrue(engine.isWon());
+    }
+
+    public void testPlayToWin() throws Exception {
+        final int size = 10;
+        final GameEngine engine = new GameEngine(new Grid(size), new SplittableRandomSource(3));
+
+        int sunk = 0;
+        for (int x = 0; x < size && !engine.isWon(); x++) {
+            for (int y = 0; y < size && !engine.isWon(); y++) {
+                engine.fire(x, y);
+                if (engine.getLastSunk() != null) {
+                    sunk++;
+                }
+            }
+        }
+
+        assertTrue(engine.isWon());
+        assertEquals(Ship.values().length, sunk);
+        assertEquals(0, engine.getShipsAfloat());
+    }
+}
@@ -2,13 +2,15 @@ package battleship.controller;
 
 import battleship.model.Grid;
 import battleship.model.Ship;
+import battleship.view.AsyncUserInterface;
 import battleship.view.TestUserInterfaceSpy;
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.EnumSet;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class GameTest extends TestCase {
 
@@ -62,17 +64,21 @@ public class GameTest extends TestCase {
 
     public void testShipSinkingMessage() throws Exception {
         final TestUserInterfaceSpy uiSpy = new TestUserInterfaceSpy();
-        uiSpy.setNextInput("0,0");
-
         final Ship expectedSunkenShip = Ship.PATROL;
         final Grid grid = new Grid() {
             @Override
-            public Set<Ship> getSunkenShips() {
-                return EnumSet.of(expectedSunkenShip);
+            public void placeAllShipsRandomly() {
+                tryPlace(expectedSunkenShip, 0, 0);
             }
         };
 
-        new Game(grid, uiSpy).playOneRound();
+        final Game game = new Game(grid, uiSpy);
+        uiSpy.setNextInput("0,0");
+        game.playOneRound();
+        assertEquals(Labels.get("Attempts", 1), uiSpy.getLastOutput());
+
+        uiSpy.setNextInput("1,0");
+        game.playOneRound();
         assertEquals(Labels.get("SunkShip", Labels.get(expectedSunkenShip.getLabelKey())), uiSpy.getLastOutput());
     }
 
@@ -96,4 +102,108 @@ public class GameTest extends TestCase {
         new Game(new Grid(), uiSpy).promptForCoordinate();
         assertEquals(Labels.get("InvalidCoordinates"), uiSpy.getLastOutput());
     }
+
+    public void testSalvoRounds() throws Exception {
+        final TestUserInterfaceSpy uiSpy = new TestUserInterfaceSpy();
+        final Grid grid = new Grid() {
+            @Override
+            public void placeAllShipsRandomly() {
+                tryPlace(Ship.PATROL, 0, 0);
+                tryPlace(Ship.SUBMARINE, 0, 1);
+            }
+        };
+        final Game game = new Game(grid, uiSpy, Game.Mode.SALVO);
+
+        uiSpy.setNextInput("0,0 9,9");
+        uiSpy.setNextInput("0,0 1,0 1,0");
+        game.playOneSalvo();
+        assertEquals(Labels.get("Attempts", 2), uiSpy.getLastOutput());
+        assertEquals(Labels.get("Miss"), uiSpy.getLastOutput());
+        assertEquals(Labels.get("Hit"), uiSpy.getLastOutput());
+        assertEquals(Labels.get("EnterSalvo", 2), uiSpy.getLastOutput());
+        assertEquals(Labels.get("InvalidNumberOfCoordinates"), uiSpy.getLastOutput());
+
+        uiSpy.setNextInput(" 1,0 ");
+        game.playOneSalvo();
+        assertEquals(Labels.get("SunkShip", Labels.get(Ship.PATROL.getLabelKey())), uiSpy.getLastOutput());
+        assertEquals(Labels.get("Attempts", 3), uiSpy.getLastOutput());
+        assertEquals(Labels.get("Hit"), uiSpy.getLastOutput());
+        assertEquals(1, grid.getShipsAfloat());
+    }
+
+    public void testPlayAsyncHoldsNoThreadWhileWaiting() throws Exception {
+        final List<CompletableFuture<String>> requests = new ArrayList<CompletableFuture<String>>();
+        final List<String> outputs = new ArrayList<String>();
+        final AsyncUserInterface ui = new AsyncUserInterface() {
+            @Override
+            public CompletableFuture<String> inAsync() {
+                final CompletableFuture<String> request = new CompletableFuture<String>();
+                requests.add(request);
+                return request;
+            }
+
+            @Override
+            public void out(final String s) {
+                outputs.add(s);
+            }
+        };
+        final Grid grid = new Grid() {
+            @Override
+            public void placeAllShipsRandomly() {
+                tryPlace(Ship.PATROL, 0, 0);
+            }
+        };
+
+        final CompletableFuture<Void> won = new Game(grid, ui).playAsync();
+        assertEquals(1, requests.size());
+        assertEquals(Labels.get("EnterCoordinates"), outputs.get(outputs.size() - 1));
+
+        requests.get(0).complete("x");
+        assertEquals(Labels.get("InvalidNumberOfCoordinates"), outputs.get(outputs.size() - 2));
+        requests.get(1).complete("0,0");
+        assertFalse(won.isDone());
+        requests.get(2).complete("1,0");
+
+        assertTrue(won.isDone());
+        assertEquals(3, requests.size());
+        assertEquals(Labels.get("YouWon"), outputs.get(outputs.size() - 1));
+    }
+
+    public void testPlayAsyncWithBlockingInput() throws Exception {
+        final int size = 100;
+
+        // a long game of immediately available input must not nest callbacks
+        final TestUserInterfaceSpy uiSpy = new TestUserInterfaceSpy() {
+            int next;
+
+            @Override
+            public String in() {
+                final int cell = next++;
+                return cell % size + "," + cell / size;
+            }
+        };
+
+        final CompletableFuture<Void> won = new Game(new Grid(size), uiSpy).playAsync();
+        assertTrue(won.isDone());
+        won.join();
+        assertEquals(Labels.get("YouWon"), uiSpy.getLastOutput());
+    }
+
+    public void testPlayAsyncInputFailure() throws Exception {
+        final AsyncUserInterface ui = new AsyncUserInterface() {
+            @Override
+            public CompletableFuture<String> inAsync() {
+                final CompletableFuture<String> request = new CompletableFuture<String>();
+                request.completeExceptionally(new IllegalStateException());
+                return request;
+            }
+
+            @Override
+            public void out(final String s) {
+            }
+        };
+
+        final CompletableFuture<Void> won = new Game(new Grid(), ui, Game.Mode.SALVO).playAsync();
+        assertTrue(won.isCompletedExceptionally());
+    }
 }
@@ -0,0 +1,95 @@
+package battleship.controller;
+
+import battleship.model.Grid;
+import battleship.model.Ship;
+import battleship.view.TestUserInterfaceSpy;
+import junit.framework.TestCase;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+public class LabelsTest extends TestCase {
+
+    public void testSameTextAsMessageFormat() throws Exception {
+        final Locale[] locales = {Locale.ROOT, Locale.GERMAN, Locale.FRANCE, new Locale("hi", "IN")};
+        final Object[][] arguments = {{}, {"word"}, {7}, {1234567}, {-1234}, {1.5}, {null}};
+        for (Locale locale : locales) {
+            final ResourceBundle bundle = ResourceBundle.getBundle(
+                    "labels", locale, ResourceBundle.Control.getNoFallbackControl(
+                            ResourceBundle.Control.FORMAT_PROPERTIES));
+            final Labels labels = Labels.forLocale(locale);
+            for (String key : bundle.keySet()) {
+                for (Object[] args : arguments) {
+                    final String expected = new MessageFormat(bundle.getString(key), locale).format(args);
+                    assertEquals(expected, labels.format(key, args));
+
+                    final StringBuilder out = new StringBuilder("> ");
+                    labels.appendTo(out, key, args);
+                    assertEquals("> " + expected, out.toString());
+
+                    if (args.length == 1 && args[0] instanceof Integer) {
+                        out.setLength(0);
+                        labels.appendTo(out, key, ((Integer) args[0]).longValue());
+                        assertEquals(expected, out.toString());
+                    }
+                }
+            }
+        }
+    }
+
+    public void testTemplates() throws Exception {
+        final String[] patterns = {"", "plain", "it''s {0}", "'{0}' is {0}", "{1} before {0}", "{0}{0}",
+                                   "{0,number,#.##} of {1}", "'quoted", "a } b"};
+        final Object[] args = {1234.5678, "x"};
+        for (String pattern : patterns) {
+            final String expected = new MessageFormat(pattern, Locale.ROOT).format(args);
+            final StringBuilder out = new StringBuilder();
+            new LabelTemplate(pattern, Locale.ROOT).appendTo(out, args);
+            assertEquals(pattern, expected, out.toString());
+        }
+
+        try {
+            new LabelTemplate("{0", Locale.ROOT);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testConstantLabelsAreShared() throws Exception {
+        final Labels labels = Labels.forLocale(Locale.ROOT);
+        assertSame(labels, Labels.forLocale(Locale.ROOT));
+        assertSame(labels.text("Hit"), labels.text("Hit"));
+        assertSame(labels.text("Hit"), Labels.get("Hit"));
+        assertEquals("*Hit*", labels.text("Hit"));
+
+        try {
+            labels.text("NoSuchLabel");
+            fail();
+        } catch (MissingResourceException e) {
+            // expected
+        }
+    }
+
+    public void testLocales() throws Exception {
+        assertEquals("Versuche: 1.000", Labels.forLocale(Locale.GERMANY).format("Attempts", 1000));
+        assertEquals("Attempts: 1,000", Labels.forLocale(Locale.ENGLISH).format("Attempts", 1000));
+        // a locale without a translation uses labels.properties
+        assertEquals(Labels.get("Miss"), Labels.forLocale(Locale.JAPANESE).text("Miss"));
+
+        final TestUserInterfaceSpy uiSpy = new TestUserInterfaceSpy();
+        final Grid grid = new Grid() {
+            @Override
+            public void placeAllShipsRandomly() {
+                tryPlace(Ship.PATROL, 0, 0);
+            }
+        };
+        final Game game = new Game(grid, uiSpy, Game.Mode.CLASSIC, null, Locale.GERMAN);
+        uiSpy.setNextInput("0,0");
+        game.playOneRound();
+        assertEquals("Versuche: 1", uiSpy.getLastOutput());
+        assertEquals("*Treffer*", uiSpy.getLastOutput());
+    }
+}
@@ -0,0 +1,80 @@
+package battleship.metrics;
+
+import battleship.model.Outcome;
+import junit.framework.TestCase;
+
+public class GameMetricsTest extends TestCase {
+
+    public void testLatencyHistogram() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0.0, histogram.getMean());
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 10);
+        }
+        histogram.record(-5);
+
+        assertEquals(101, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(50500.0 / 101, histogram.getMean(), 1e-9);
+
+        // 500 lies in the bucket [256, 511]
+        assertEquals(511, histogram.getPercentile(50));
+        assertEquals(1000, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    public void testRecording() throws Exception {
+        final GameMetrics metrics = new GameMetrics();
+        metrics.recordGameStarted();
+        metrics.recordGameStarted();
+        metrics.recordLayout(1, 0);
+        metrics.recordLayout(3, 40);
+        metrics.recordShot(Outcome.HIT);
+        metrics.recordShot(Outcome.MISS);
+        metrics.recordShot(Outcome.MISS);
+        metrics.recordShot(Outcome.SUNK);
+        metrics.recordShot(Outcome.REPEAT);
+        metrics.recordShot(Outcome.OFF_GRID);
+        metrics.recordGameFinished(5);
+        metrics.recordPhase(GameMetrics.Phase.STRIKE, 100);
+        metrics.recordPhase(GameMetrics.Phase.STRIKE, 300);
+
+        assertEquals(2, metrics.getGamesStarted());
+        assertEquals(1, metrics.getGamesFinished());
+        assertEquals(1, metrics.getGamesInProgress());
+        assertEquals(2, metrics.getLayouts());
+        assertEquals(2, metrics.getPlacementRetries());
+        assertEquals(40, metrics.getPlacementRejections());
+        assertEquals(1, metrics.getHits());
+        assertEquals(2, metrics.getMisses());
+        assertEquals(1, metrics.getSunk());
+        assertEquals(1, metrics.getRepeats());
+        assertEquals(1, metrics.getOffGrid());
+        assertEquals(200.0, metrics.getStrikeMeanNanos());
+        assertEquals(300, metrics.getStrike99thPercentileNanos());
+        assertEquals(0, metrics.getLatencies(GameMetrics.Phase.RENDER).getCount());
+
+        metrics.reset();
+        assertEquals(0, metrics.getHits());
+        assertEquals(1, metrics.getGamesInProgress());
+
+        metrics.recordGameResumed();
+        assertEquals(2, metrics.getGamesInProgress());
+        metrics.recordGameAbandoned();
+        metrics.recordGameAbandoned();
+        assertEquals(0, metrics.getGamesInProgress());
+    }
+
+    public void testDisabledByDefault() throws Exception {
+        assertFalse(GameMetrics.ENABLED);
+        assertEquals(0, GameMetrics.start());
+        GameMetrics.shot(Outcome.HIT);
+        assertEquals(0, GameMetrics.get().getHits());
+    }
+}
@@ -0,0 +1,49 @@
+package battleship.model;
+
+import junit.framework.TestCase;
+
+public class BitboardStoreTest extends TestCase {
+
+    public void testStatusTransitions() throws Exception {
+        final BitboardStore store = new BitboardStore(3, 3);
+        assertEquals(CellStatus.EMPTY, store.getStatus(1, 2));
+
+        store.setShip(1, 2, Ship.DESTROYER.id);
+        store.setStatus(1, 2, CellStatus.PLACED);
+        assertEquals(CellStatus.PLACED, store.getStatus(1, 2));
+        assertEquals(Ship.DESTROYER.id, store.getShip(1, 2));
+
+        store.setStatus(1, 2, CellStatus.HIT);
+        assertEquals(CellStatus.HIT, store.getStatus(1, 2));
+        assertEquals(Ship.DESTROYER.id, store.getShip(1, 2));
+
+        store.setStatus(2, 1, CellStatus.MISSED);
+        assertEquals(CellStatus.MISSED, store.getStatus(2, 1));
+        assertEquals(CellStore.NO_SHIP, store.getShip(2, 1));
+
+        store.clear();
+        assertEquals(CellStatus.EMPTY, store.getStatus(1, 2));
+        assertEquals(CellStore.NO_SHIP, store.getShip(1, 2));
+    }
+
+    public void testNeighbouringShipsDoNotInterfere() throws Exception {
+        final BitboardStore store = new BitboardStore(40, 1000);
+        for (int x = 0; x < 40; x++) {
+            store.setShip(x, 0, x * 997 % 1000);
+            store.setStatus(x, 0, CellStatus.PLACED);
+        }
+
+        for (int x = 0; x < 40; x++) {
+            assertEquals(x * 997 % 1000, store.getShip(x, 0));
+        }
+    }
+
+    public void testTooLarge() throws Exception {
+        try {
+            new BitboardStore(50000, 3);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package battleship.model;
+
+public class CellArrayGridTest extends GridTest {
+
+    @Override
+    protected Grid newGrid(final int size) {
+        return new Grid(size, Grid.Storage.CELLS);
+    }
+
+    @Override
+    protected int largeGridSize() {
+        return 512; // one object per square; boards larger than this are what the bitboard is for.
+    }
+}
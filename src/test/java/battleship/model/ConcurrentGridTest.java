@@ -0,0 +1,76 @@
+package battleship.model;
+
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentGridTest extends GridTest {
+
+    @Override
+    protected Grid newGrid(final int size) {
+        return new ConcurrentGrid(size);
+    }
+
+    public void testEachHitAndSinkingReportedOnce() throws Exception {
+        final int size = 64;
+        final int threads = 8;
+        final Grid grid = newGrid(size);
+        grid.placeAllShipsRandomly(new JdkRandomSource(5));
+        grid.display(true);
+
+        final AtomicInteger hits = new AtomicInteger();
+        final AtomicInteger sinkings = new AtomicInteger();
+        final AtomicInteger misses = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] strikers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            strikers[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+
+                    // every thread strikes every cell, each starting at a different row
+                    for (int i = 0; i < size * size; i++) {
+                        final int cell = (i + offset * size * size / threads) % (size * size);
+                        switch (grid.tryStrike(cell % size, cell / size)) {
+                            case HIT:
+                                hits.incrementAndGet();
+                                break;
+                            case SUNK:
+                                sinkings.incrementAndGet();
+                                break;
+                            case MISS:
+                                misses.incrementAndGet();
+                                break;
+                        }
+                    }
+                }
+            };
+            strikers[t].start();
+        }
+
+        start.countDown();
+        for (Thread striker : strikers) {
+            striker.join();
+        }
+
+        int fleetCells = 0;
+        for (Ship ship : Ship.values()) {
+            fleetCells += ship.length;
+        }
+
+        assertEquals(Ship.values().length, sinkings.get());
+        assertEquals(fleetCells, hits.get() + sinkings.get());
+        assertEquals(size * size - fleetCells, misses.get());
+        assertFalse(grid.areAnyShipsAfloat());
+        assertEquals(-1, grid.display(false).indexOf('O'));
+        assertEquals(-1, grid.display(false).indexOf('#'));
+        assertEquals(new HashSet<Ship>(grid.getFleet().getShips()), grid.getSunkenShips());
+    }
+}
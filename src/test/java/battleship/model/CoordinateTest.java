@@ -18,4 +18,22 @@ public class CoordinateTest extends TestCase {
         assertEquals("(1,2)", new Coordinate(1,2).toString());
     }
 
+
+    public void testPack() throws Exception {
+        final int packed = Coordinate.pack(3, Coordinate.PACKED_LIMIT - 1);
+        assertTrue(packed >= 0);
+        assertEquals(3, Coordinate.unpackX(packed));
+        assertEquals(Coordinate.PACKED_LIMIT - 1, Coordinate.unpackY(packed));
+
+        assertEquals(Coordinate.INVALID, Coordinate.pack(-1, 0));
+        assertEquals(Coordinate.INVALID, Coordinate.pack(0, Coordinate.PACKED_LIMIT));
+    }
+
+
+    public void testValueOf() throws Exception {
+        assertSame(Coordinate.valueOf(1, 2), Coordinate.valueOf(1, 2));
+        assertSame(Coordinate.valueOf(1, 2), Coordinate.valueOf(Coordinate.pack(1, 2)));
+        assertEquals(new Coordinate(-1, Coordinate.CACHE_LIMIT), Coordinate.valueOf(-1, Coordinate.CACHE_LIMIT));
+        assertEquals(Coordinate.pack(1, 2), Coordinate.valueOf(1, 2).pack());
+    }
 }
@@ -2,18 +2,40 @@ package battleship.model;
 
 import junit.framework.TestCase;
 
-import java.util.EnumSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class GridTest extends TestCase {
 
+    /**
+     * Create the grid under test. Override to exercise another storage backend.
+     */
+    protected Grid newGrid(final int size) {
+        return new Grid(size, Grid.Storage.BITBOARD);
+    }
+
+    /**
+     * Size of the grid in testLargeGrid. Override when the backend under test cannot hold one this large.
+     */
+    protected int largeGridSize() {
+        return 4096;
+    }
+
+    private static Set<Ship> ships(final Ship... ships) {
+        return new HashSet<Ship>(Arrays.asList(ships));
+    }
+
     public void testBattleshipSimplePlaceAndStrike() throws Exception {
-        final Grid grid = new Grid();
+        final Grid grid = newGrid(Grid.DEFAULT_SIZE);
 
         // place a ship at the origin
         final Coordinate origin = new Coordinate(0, 0);
         grid.place(Ship.PATROL, origin);
         assertTrue(grid.areAnyShipsAfloat());
-        assertEquals(EnumSet.noneOf(Ship.class), grid.getSunkenShips());
+        assertEquals(ships(), grid.getSunkenShips());
 
         // miss the ship
         final Coordinate xBoundary = new Coordinate(2, 0);
@@ -25,7 +47,7 @@ public class GridTest extends TestCase {
         assertEquals(CellStatus.MISSED, grid.getCell(yBoundary).getStatus());
 
         assertTrue(grid.areAnyShipsAfloat());
-        assertEquals(EnumSet.noneOf(Ship.class), grid.getSunkenShips());
+        assertEquals(ships(), grid.getSunkenShips());
 
         // hit the ship
         assertEquals(CellStatus.PLACED, grid.getCell(origin).getStatus());
@@ -36,7 +58,7 @@ public class GridTest extends TestCase {
         assertEquals(2, Ship.PATROL.length);
         assertTrue(grid.strike(new Coordinate(origin.getX() + 1, 0)));
         assertFalse(grid.areAnyShipsAfloat());
-        assertEquals(EnumSet.of(Ship.PATROL), grid.getSunkenShips());
+        assertEquals(ships(Ship.PATROL), grid.getSunkenShips());
 
         // re-hit the ship
         assertFalse(grid.strike(origin));
@@ -44,7 +66,7 @@ public class GridTest extends TestCase {
     }
 
     public void testBattleshipPlacementWithOverlapAndRollback() throws Exception {
-        final Grid grid = new Grid(5);
+        final Grid grid = newGrid(5);
         grid.place(Ship.PATROL, new Coordinate(3, 0));       // 000SS
 
         try {
@@ -61,7 +83,7 @@ public class GridTest extends TestCase {
     }
 
     public void testBattleshipPlacementWithOriginOutOfBounds() throws Exception {
-        final Grid grid = new Grid();
+        final Grid grid = newGrid(Grid.DEFAULT_SIZE);
         try {
             grid.place(Ship.DESTROYER, new Coordinate(0, Grid.DEFAULT_SIZE + 1));
             fail();
@@ -71,7 +93,7 @@ public class GridTest extends TestCase {
     }
 
     public void testBattleshipPlacementHangingOutOfBounds() throws Exception {
-        final Grid grid = new Grid();
+        final Grid grid = newGrid(Grid.DEFAULT_SIZE);
         final Coordinate origin = new Coordinate(Grid.DEFAULT_SIZE - Ship.DESTROYER.length + 1, 0);
         try {
             grid.place(Ship.DESTROYER, origin);
@@ -83,7 +105,7 @@ public class GridTest extends TestCase {
     }
 
     public void testStrikingOutOfBounds() throws Exception {
-        final Grid grid = new Grid();
+        final Grid grid = newGrid(Grid.DEFAULT_SIZE);
         try {
             grid.strike(new Coordinate(0, Grid.DEFAULT_SIZE + 1));
             fail();
@@ -99,10 +121,324 @@ public class GridTest extends TestCase {
         }
 
         try {
-            new Grid(maxShipLength - 1);
+            newGrid(maxShipLength - 1);
             fail();
         } catch(IllegalArgumentException e) {
             // expected.
         }
     }
+
+    public void testLargeGrid() throws Exception {
+        final int size = largeGridSize();
+        final Grid grid = newGrid(size);
+
+        final Coordinate origin = new Coordinate(size - Ship.PATROL.length, size - 1);
+        grid.place(Ship.PATROL, origin);
+        assertEquals(Ship.PATROL, grid.getCell(origin).getShip());
+        assertEquals(CellStatus.EMPTY, grid.getCell(new Coordinate(0, size - 1)).getStatus());
+
+        assertTrue(grid.strike(origin));
+        assertTrue(grid.strike(new Coordinate(size - 1, size - 1)));
+        assertFalse(grid.areAnyShipsAfloat());
+
+        grid.reset();
+        assertEquals(new Cell(), grid.getCell(origin));
+    }
+
+    public void testShipsAfloatCountedAcrossPlaceRollbackAndReset() throws Exception {
+        final Grid grid = newGrid(5);
+        assertFalse(grid.areAnyShipsAfloat());
+
+        grid.place(Ship.PATROL, new Coordinate(3, 0));
+        grid.place(Ship.SUBMARINE, new Coordinate(0, 1));
+        try {
+            grid.place(Ship.DESTROYER, new Coordinate(0, 0));
+            fail();
+        } catch (OverlappingException e) {
+            // expected. the partial destroyer must not count as afloat.
+        }
+
+        assertTrue(grid.strike(new Coordinate(3, 0)));
+        assertTrue(grid.strike(new Coordinate(4, 0)));
+        assertEquals(ships(Ship.PATROL), grid.getSunkenShips());
+        assertTrue(grid.areAnyShipsAfloat());
+
+        for (int x = 0; x < Ship.SUBMARINE.length; x++) {
+            assertTrue(grid.strike(new Coordinate(x, 1)));
+        }
+        assertEquals(ships(Ship.PATROL, Ship.SUBMARINE), grid.getSunkenShips());
+        assertFalse(grid.areAnyShipsAfloat());
+
+        grid.place(Ship.DESTROYER, new Coordinate(0, 2));
+        assertTrue(grid.areAnyShipsAfloat());
+        grid.reset();
+        assertFalse(grid.areAnyShipsAfloat());
+        assertEquals(ships(), grid.getSunkenShips());
+    }
+
+    public void testOutcomes() throws Exception {
+        final Grid grid = newGrid(5);
+
+        assertEquals(Outcome.OFF_GRID, grid.tryPlace(Ship.PATROL, -1, 0));
+        assertEquals(Outcome.OFF_GRID, grid.tryPlace(Ship.PATROL, 4, 0));
+        assertEquals(Outcome.PLACED, grid.tryPlace(Ship.PATROL, 3, 0));
+        assertEquals(Outcome.OVERLAP, grid.tryPlace(Ship.SUBMARINE, 2, 0));
+        assertEquals(new Cell(), grid.getCell(new Coordinate(2, 0)));
+
+        assertEquals(Outcome.OFF_GRID, grid.tryStrike(5, 0));
+        assertEquals(Outcome.OFF_GRID, grid.tryStrike(0, -1));
+        assertEquals(Outcome.OFF_GRID, grid.tryStrike(Coordinate.INVALID));
+        assertEquals(Outcome.MISS, grid.tryStrike(Coordinate.pack(1, 1)));
+        assertEquals(Outcome.MISS, grid.tryStrike(0, 0));
+        assertEquals(Outcome.REPEAT, grid.tryStrike(0, 0));
+        assertEquals(Outcome.HIT, grid.tryStrike(3, 0));
+        assertEquals(Outcome.REPEAT, grid.tryStrike(3, 0));
+        assertNull(grid.getRevealedShip(4, 0));
+        assertEquals(Outcome.SUNK, grid.tryStrike(4, 0));
+        assertEquals(Ship.PATROL, grid.getRevealedShip(4, 0));
+        assertTrue(grid.isSunk(Ship.PATROL));
+        assertFalse(grid.isSunk(Fleet.of(Ship.PATROL).get(0))); // same id, another fleet
+        assertNull(grid.getRevealedShip(0, 0));
+        assertNull(grid.getRevealedShip(-1, 0));
+        assertFalse(grid.areAnyShipsAfloat());
+    }
+
+    public void testVerticalPlacement() throws Exception {
+        final Grid grid = newGrid(5);
+        grid.place(Ship.SUBMARINE, new Coordinate(4, 2), Orientation.VERTICAL);
+        assertEquals(Ship.SUBMARINE, grid.getCell(new Coordinate(4, 2)).getShip());
+        assertEquals(Ship.SUBMARINE, grid.getCell(new Coordinate(4, 4)).getShip());
+        assertEquals(new Cell(), grid.getCell(new Coordinate(4, 1)));
+
+        assertEquals(Outcome.OFF_GRID, grid.tryPlace(Ship.DESTROYER, 0, 2, Orientation.VERTICAL));
+        assertEquals(Outcome.OVERLAP, grid.tryPlace(Ship.DESTROYER, 1, 3, Orientation.HORIZONTAL));
+        assertEquals(Outcome.OFF_GRID, grid.tryPlace(Ship.PATROL, Coordinate.INVALID, Orientation.HORIZONTAL));
+        assertEquals(Outcome.OVERLAP, grid.tryPlace(Ship.PATROL, Coordinate.pack(3, 4), Orientation.HORIZONTAL));
+        assertEquals(Outcome.PLACED, grid.tryPlace(Ship.DESTROYER, 0, 1, Orientation.VERTICAL));
+    }
+
+    public void testPlaceAllShipsRandomly() throws Exception {
+        final Grid grid = newGrid(Grid.DEFAULT_SIZE);
+        grid.place(Ship.PATROL, new Coordinate(0, 0));
+        grid.placeAllShipsRandomly(new JdkRandomSource(42));
+
+        int placedCells = 0;
+        for (Cell cell : grid) {
+            if (cell.getStatus() == CellStatus.PLACED) {
+                placedCells++;
+            }
+        }
+
+        int fleetCells = 0;
+        for (Ship ship : Ship.values()) {
+            fleetCells += ship.length;
+        }
+
+        assertEquals(fleetCells, placedCells);
+    }
+
+    public void testLayoutCost() throws Exception {
+        final Grid grid = newGrid(Grid.DEFAULT_SIZE);
+        assertEquals(0, grid.getLayoutAttempts());
+        grid.placeAllShipsRandomly(new JdkRandomSource(42));
+        assertTrue(grid.getLayoutAttempts() >= 1);
+        assertEquals(0, grid.getLayoutRejections());
+
+        // three ships of length 4 fill most of a 4 x 4 grid, so draws are rejected
+        final Fleet fleet = new Fleet.Builder().add("DESTROYER", 4, 3).build();
+        final Grid crowded = new Grid(4, Grid.Storage.BITBOARD, fleet, Grid.Placement.REJECTION);
+        crowded.placeAllShipsRandomly(new JdkRandomSource(42));
+        assertTrue(crowded.getLayoutRejections() > 0);
+    }
+
+    public void testPlaceConfiguredFleet() throws Exception {
+        for (Grid.Placement placement : Grid.Placement.values()) {
+            final Grid grid = new Grid(5, Grid.Storage.BITBOARD, Fleet.of(Ship.PATROL, Ship.DESTROYER), placement);
+            grid.placeAllShipsRandomly(new JdkRandomSource(3));
+            assertEquals(2, grid.getShipsAfloat());
+
+            int placedCells = 0;
+            for (Cell cell : grid) {
+                if (cell.getStatus() == CellStatus.PLACED) {
+                    assertFalse(cell.getShip().getName().equals("SUBMARINE"));
+                    placedCells++;
+                }
+            }
+            assertEquals(6, placedCells);
+        }
+
+        assertSame(Fleet.STANDARD, Fleet.of(Ship.PATROL, Ship.SUBMARINE, Ship.DESTROYER));
+        try {
+            Fleet.of();
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new Fleet.Builder().add("TWO WORDS", 2, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            newGrid(5).tryPlace(Fleet.of(Ship.PATROL).get(0), 0, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected: a ship of another fleet
+        }
+        try {
+            new Grid(3, Grid.Storage.BITBOARD, Fleet.of(Ship.DESTROYER), Grid.Placement.UNIFORM);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testLargeFleet() throws Exception {
+        final Fleet fleet = new Fleet.Builder()
+                .add("BARGE", 1, 1000)
+                .add(Ship.DESTROYER, 500)
+                .add("CARRIER", 7, 100)
+                .build();
+        assertEquals(1600, fleet.size());
+        assertEquals(7, fleet.getLongest());
+        assertEquals(1000 + 500 * 4 + 100 * 7, fleet.getSquares());
+        assertEquals("[BARGE(1) x1000, DESTROYER(4) x500, CARRIER(7) x100]", fleet.toString());
+
+        final int size = 120;
+        final Grid grid = new Grid(size, Grid.Storage.BITBOARD, fleet, Grid.Placement.REJECTION);
+        grid.placeAllShipsRandomly(new JdkRandomSource(11));
+        assertEquals(fleet.size(), grid.getShipsAfloat());
+
+        final int[] row = new int[size];
+        final Outcome[] outcomes = new Outcome[size];
+        int sunk = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                row[x] = Coordinate.pack(x, y);
+            }
+            final List<Ship> newlySunk = grid.strikeAll(row, outcomes);
+            for (Ship ship : newlySunk) {
+                assertTrue(grid.isSunk(ship));
+                assertEquals(ship.length, grid.getSquares(ship).size());
+                for (Coordinate square : grid.getSquares(ship)) {
+                    assertSame(ship, grid.getRevealedShip(square.getX(), square.getY()));
+                }
+            }
+            sunk += newlySunk.size();
+            assertEquals(fleet.size() - sunk, grid.getShipsAfloat());
+        }
+        assertEquals(fleet.size(), sunk);
+        assertEquals(new HashSet<Ship>(fleet.getShips()), grid.getSunkenShips());
+    }
+
+    public void testShipIndex() throws Exception {
+        final Grid grid = newGrid(5);
+        grid.place(Ship.SUBMARINE, new Coordinate(1, 1), Orientation.VERTICAL);
+        grid.place(Ship.PATROL, new Coordinate(3, 0));
+        assertEquals(new Coordinate(1, 1), grid.getOrigin(Ship.SUBMARINE));
+        assertEquals(Orientation.VERTICAL, grid.getOrientation(Ship.SUBMARINE));
+        assertEquals(Arrays.asList(new Coordinate(1, 1), new Coordinate(1, 2), new Coordinate(1, 3)),
+                     grid.getSquares(Ship.SUBMARINE));
+        assertEquals(Orientation.HORIZONTAL, grid.getOrientation(Ship.PATROL));
+        assertNull(grid.getOrigin(Ship.DESTROYER));
+        assertNull(grid.getOrientation(Ship.DESTROYER));
+        assertTrue(grid.getSquares(Ship.DESTROYER).isEmpty());
+
+        try {
+            grid.tryPlace(Ship.PATROL, 0, 4);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected: each ship is placed once
+        }
+
+        // a removed ship leaves the others be and may be placed again
+        assertTrue(grid.remove(Ship.PATROL));
+        assertFalse(grid.remove(Ship.PATROL));
+        assertFalse(grid.remove(Ship.DESTROYER));
+        assertEquals("OOOOO\nO#OOO\nO#OOO\nO#OOO\nOOOOO", grid.display(false));
+        assertEquals(1, grid.getShipsAfloat());
+        assertEquals(Outcome.PLACED, grid.tryPlace(Ship.PATROL, 0, 4));
+        assertEquals(2, grid.getShipsAfloat());
+
+        assertEquals(Outcome.HIT, grid.tryStrike(1, 3));
+        try {
+            grid.remove(Ship.SUBMARINE);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected: a ship that has been struck stays
+        }
+        assertEquals(Ship.SUBMARINE, grid.getRevealedShip(1, 3));
+
+        grid.reset();
+        assertNull(grid.getOrigin(Ship.SUBMARINE));
+        assertEquals(Outcome.PLACED, grid.tryPlace(Ship.SUBMARINE, 0, 0));
+    }
+
+    public void testPlaceAllShipsRandomlyIsReproducible() throws Exception {
+        final Grid first = newGrid(Grid.DEFAULT_SIZE);
+        final Grid second = newGrid(Grid.DEFAULT_SIZE);
+        first.placeAllShipsRandomly(new JdkRandomSource(7));
+        second.placeAllShipsRandomly(new JdkRandomSource(7));
+        assertEquals(first.display(false), second.display(false));
+    }
+
+    public void testSplitRandomSourcesAreReproducible() throws Exception {
+        final RandomSource first = new SplittableRandomSource(11);
+        final RandomSource second = new SplittableRandomSource(11);
+        final RandomSource firstChild = first.split();
+        final RandomSource secondChild = second.split();
+
+        final Grid[] grids = {newGrid(Grid.DEFAULT_SIZE), newGrid(Grid.DEFAULT_SIZE),
+                              newGrid(Grid.DEFAULT_SIZE), newGrid(Grid.DEFAULT_SIZE)};
+        grids[0].placeAllShipsRandomly(firstChild);
+        grids[1].placeAllShipsRandomly(first);
+        grids[2].placeAllShipsRandomly(secondChild);
+        grids[3].placeAllShipsRandomly(second);
+
+        assertEquals(grids[0].display(false), grids[2].display(false));
+        assertEquals(grids[1].display(false), grids[3].display(false));
+    }
+
+    public void testDisplay() throws Exception {
+        final Grid grid = newGrid(5);
+        grid.place(Ship.PATROL, new Coordinate(3, 0));
+        assertEquals("OOO##\nOOOOO\nOOOOO\nOOOOO\nOOOOO", grid.display(false));
+        assertEquals("OOOOO\nOOOOO\nOOOOO\nOOOOO\nOOOOO", grid.display(true));
+
+        // rendered frames are patched from here on
+        grid.strike(new Coordinate(3, 0));
+        grid.strike(new Coordinate(0, 4));
+        grid.place(Ship.SUBMARINE, new Coordinate(1, 1), Orientation.VERTICAL);
+        assertEquals("OOO+#\nO#OOO\nO#OOO\nO#OOO\nXOOOO", grid.toString());
+
+        final StringBuilder out = new StringBuilder(">");
+        grid.render(true, out);
+        assertEquals(">OOO+O\nOOOOO\nOOOOO\nOOOOO\nXOOOO", out.toString());
+
+        grid.reset();
+        assertEquals("OOOOO\nOOOOO\nOOOOO\nOOOOO\nOOOOO", grid.display(false));
+    }
+
+    public void testStrikeAll() throws Exception {
+        final Grid grid = newGrid(5);
+        grid.place(Ship.PATROL, new Coordinate(0, 0));
+        grid.place(Ship.SUBMARINE, new Coordinate(0, 1));
+
+        final int[] salvo = {
+                Coordinate.pack(0, 0), Coordinate.pack(1, 0), Coordinate.pack(0, 1),
+                Coordinate.pack(4, 4), Coordinate.pack(0, 0), Coordinate.pack(5, 0), Coordinate.pack(-1, 0)
+        };
+        final Outcome[] outcomes = new Outcome[salvo.length];
+
+        assertEquals(Collections.singletonList(Ship.PATROL), grid.strikeAll(salvo, outcomes));
+        assertEquals(Outcome.HIT, outcomes[0]);
+        assertEquals(Outcome.SUNK, outcomes[1]);
+        assertEquals(Outcome.HIT, outcomes[2]);
+        assertEquals(Outcome.MISS, outcomes[3]);
+        assertEquals(Outcome.REPEAT, outcomes[4]);
+        assertEquals(Outcome.OFF_GRID, outcomes[5]);
+        assertEquals(Outcome.OFF_GRID, outcomes[6]);
+        assertEquals(1, grid.getShipsAfloat());
+    }
 }
@@ -0,0 +1,41 @@
+package battleship.model;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LongIntMapTest extends TestCase {
+
+    public void testAgainstHashMap() throws Exception {
+        final LongIntMap map = new LongIntMap();
+        final Map<Long, Integer> expected = new HashMap<Long, Integer>();
+        final Random random = new Random(11);
+
+        for (int i = 0; i < 20000; i++) {
+            final long key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 500; key++) {
+            final Integer value = expected.get(key);
+            assertEquals(value == null ? -1 : value, map.get(key, -1));
+        }
+    }
+
+    public void testClear() throws Exception {
+        final LongIntMap map = new LongIntMap();
+        map.put(1L << 40, 3);
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(-1, map.get(1L << 40, -1));
+    }
+}
@@ -0,0 +1,116 @@
+package battleship.model;
+
+import junit.framework.TestCase;
+
+public class PlacementEngineTest extends TestCase {
+
+    public void testFillsCrowdedGrid() throws Exception {
+        final int size = 4;
+        final int[] lengths = {4, 4, 4, 4};
+        final int[] xs = new int[lengths.length];
+        final int[] ys = new int[lengths.length];
+        final Orientation[] orientations = new Orientation[lengths.length];
+
+        for (long seed = 0; seed < 100; seed++) {
+            new PlacementEngine(size, new JdkRandomSource(seed)).layout(lengths, xs, ys, orientations);
+
+            final boolean[][] covered = new boolean[size][size];
+            for (int i = 0; i < lengths.length; i++) {
+                for (int j = 0; j < lengths[i]; j++) {
+                    final int x = xs[i] + orientations[i].dx * j;
+                    final int y = ys[i] + orientations[i].dy * j;
+                    assertFalse(covered[x][y]);
+                    covered[x][y] = true;
+                }
+            }
+        }
+    }
+
+    public void testMixedLengthsDoNotOverlap() throws Exception {
+        final int size = 6;
+        final int[] lengths = {4, 3, 3, 2, 2, 2, 2, 2};
+        final int[] xs = new int[lengths.length];
+        final int[] ys = new int[lengths.length];
+        final Orientation[] orientations = new Orientation[lengths.length];
+
+        for (long seed = 0; seed < 100; seed++) {
+            new PlacementEngine(size, new JdkRandomSource(seed)).layout(lengths, xs, ys, orientations);
+
+            final boolean[][] covered = new boolean[size][size];
+            for (int i = 0; i < lengths.length; i++) {
+                for (int j = 0; j < lengths[i]; j++) {
+                    final int x = xs[i] + orientations[i].dx * j;
+                    final int y = ys[i] + orientations[i].dy * j;
+                    assertFalse(covered[x][y]);
+                    covered[x][y] = true;
+                }
+            }
+        }
+    }
+
+    public void testRejectionDoesNotOverlap() throws Exception {
+        final int size = 6;
+        final int[] lengths = {4, 3, 3, 2, 2, 2};
+        final int[] xs = new int[lengths.length];
+        final int[] ys = new int[lengths.length];
+        final Orientation[] orientations = new Orientation[lengths.length];
+
+        for (long seed = 0; seed < 100; seed++) {
+            new PlacementEngine(size, new JdkRandomSource(seed)).layoutByRejection(lengths, xs, ys, orientations);
+
+            final boolean[][] covered = new boolean[size][size];
+            for (int i = 0; i < lengths.length; i++) {
+                for (int j = 0; j < lengths[i]; j++) {
+                    final int x = xs[i] + orientations[i].dx * j;
+                    final int y = ys[i] + orientations[i].dy * j;
+                    assertFalse(covered[x][y]);
+                    covered[x][y] = true;
+                }
+            }
+        }
+    }
+
+    public void testUsesBothOrientations() throws Exception {
+        final int[] lengths = {2};
+        final int[] xs = new int[1];
+        final int[] ys = new int[1];
+        final Orientation[] orientations = new Orientation[1];
+
+        boolean horizontal = false;
+        boolean vertical = false;
+        final PlacementEngine engine = new PlacementEngine(10, new JdkRandomSource(1));
+        for (int i = 0; i < 100; i++) {
+            engine.layout(lengths, xs, ys, orientations);
+            horizontal |= orientations[0] == Orientation.HORIZONTAL;
+            vertical |= orientations[0] == Orientation.VERTICAL;
+        }
+
+        assertTrue(horizontal);
+        assertTrue(vertical);
+    }
+
+    public void testFleetThatCannotFit() throws Exception {
+        try {
+            new PlacementEngine(3, new JdkRandomSource(1))
+                    .layout(new int[]{3, 3, 3, 1}, new int[4], new int[4], new Orientation[4]);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected.
+        }
+    }
+
+    public void testFreeRunsSplit() throws Exception {
+        final FreeRuns runs = new FreeRuns(10);
+        assertEquals(9, runs.placements(2));
+
+        runs.occupy(4, 6);                      // ####__####
+        assertEquals(6, runs.placements(2));
+        assertEquals(0, runs.position(2, 0));
+        assertEquals(6, runs.position(2, 3));
+
+        runs.occupy(0, 1);                      // _###__####
+        assertEquals(5, runs.placements(2));
+        assertEquals(1, runs.position(2, 0));
+        assertEquals(0, runs.placements(5));
+    }
+}
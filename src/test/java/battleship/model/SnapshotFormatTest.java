@@ -0,0 +1,158 @@
+package battleship.model;
+
+import junit.framework.TestCase;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+public class SnapshotFormatTest extends TestCase {
+
+    private static Grid playedGrid() {
+        final Grid grid = new Grid(Grid.DEFAULT_SIZE);
+        grid.placeAllShipsRandomly(new SplittableRandomSource(5));
+        for (int i = 0; i < 60; i += 3) {
+            grid.tryStrike(i % Grid.DEFAULT_SIZE, i / Grid.DEFAULT_SIZE);
+        }
+        // sink the patrol boat wherever it lies
+        for (int y = 0; y < Grid.DEFAULT_SIZE; y++) {
+            for (int x = 0; x < Grid.DEFAULT_SIZE; x++) {
+                if (grid.getShip(x, y) == Ship.PATROL) {
+                    grid.tryStrike(x, y);
+                }
+            }
+        }
+        return grid;
+    }
+
+    public void testRoundTrip() throws Exception {
+        final Grid grid = playedGrid();
+        final ByteBuffer buffer = ByteBuffer.allocate(SnapshotFormat.size(Grid.DEFAULT_SIZE) + 3);
+        buffer.position(3);
+        SnapshotFormat.write(grid, 42, buffer);
+        assertFalse(buffer.hasRemaining());
+
+        for (Grid.Storage storage : Grid.Storage.values()) {
+            buffer.position(3);
+            assertEquals(Grid.DEFAULT_SIZE, SnapshotFormat.readSize(buffer));
+
+            final Grid restored = new Grid(Grid.DEFAULT_SIZE, storage);
+            restored.placeAllShipsRandomly();
+            assertEquals(42, SnapshotFormat.read(buffer, restored));
+            assertFalse(buffer.hasRemaining());
+
+            assertEquals(grid.display(false), restored.display(false));
+            assertEquals(grid.getSunkenShips(), restored.getSunkenShips());
+            assertEquals(grid.getShipsAfloat(), restored.getShipsAfloat());
+            for (Ship ship : Ship.values()) {
+                assertEquals(grid.getOrientation(ship), restored.getOrientation(ship));
+                assertEquals(grid.getSquares(ship), restored.getSquares(ship));
+            }
+            for (int y = 0; y < Grid.DEFAULT_SIZE; y++) {
+                for (int x = 0; x < Grid.DEFAULT_SIZE; x++) {
+                    assertEquals(grid.getShip(x, y), restored.getShip(x, y));
+                    assertEquals(grid.getStatus(x, y), restored.getStatus(x, y));
+                    assertEquals(grid.getStatus(x, y) == CellStatus.PLACED, restored.tryStrike(x, y).isHit());
+                }
+            }
+            assertFalse(restored.areAnyShipsAfloat());
+        }
+    }
+
+    public void testRoundTripOfLargeFleet() throws Exception {
+        final Fleet fleet = new Fleet.Builder().add("BARGE", 1, 300).add(Ship.SUBMARINE, 200).build();
+        final Grid grid = new Grid(50, Grid.Storage.SPARSE, fleet, Grid.Placement.REJECTION);
+        grid.placeAllShipsRandomly(new SplittableRandomSource(9));
+        for (int i = 0; i < 50 * 50; i += 2) {
+            grid.tryStrike(i % 50, i / 50);
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(SnapshotFormat.size(50, fleet));
+        SnapshotFormat.write(grid, 7, buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.rewind();
+        assertEquals(fleet, SnapshotFormat.readFleet(buffer));
+
+        final Grid restored = new Grid(50, Grid.Storage.BITBOARD, SnapshotFormat.readFleet(buffer),
+                                       Grid.Placement.UNIFORM);
+        assertEquals(7, SnapshotFormat.read(buffer, restored));
+        assertEquals(grid.display(false), restored.display(false));
+        assertEquals(grid.getShipsAfloat(), restored.getShipsAfloat());
+        assertEquals(grid.getSunkenShips().size(), restored.getSunkenShips().size());
+        for (Ship ship : restored.getFleet().getShips()) {
+            assertEquals(grid.isSunk(grid.getFleet().get(ship.getId())), restored.isSunk(ship));
+            assertEquals(grid.getSquares(grid.getFleet().get(ship.getId())), restored.getSquares(ship));
+        }
+    }
+
+    public void testTornWriteIsNotASnapshot() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(SnapshotFormat.size(Grid.DEFAULT_SIZE));
+        SnapshotFormat.write(playedGrid(), 1, buffer);
+
+        // a crash part-way through overwriting it
+        buffer.clear().limit(buffer.capacity() - 1);
+        try {
+            SnapshotFormat.write(playedGrid(), 2, buffer);
+            fail();
+        } catch (BufferOverflowException e) {
+            // expected.
+        }
+        try {
+            SnapshotFormat.readSize((ByteBuffer) buffer.rewind());
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+    }
+
+    public void testSize() throws Exception {
+        // 24 bytes of header, 51 bytes of fleet and 4 bits for each of 100 squares, for a fleet of three
+        assertEquals(125, SnapshotFormat.size(10));
+    }
+
+    public void testRejectsOtherData() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(SnapshotFormat.size(Grid.DEFAULT_SIZE));
+        SnapshotFormat.write(playedGrid(), 0, buffer);
+
+        buffer.put(4, (byte) (SnapshotFormat.VERSION + 1));
+        try {
+            SnapshotFormat.readSize((ByteBuffer) buffer.rewind());
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+
+        buffer.put(4, SnapshotFormat.VERSION);
+        try {
+            SnapshotFormat.read((ByteBuffer) buffer.rewind(), new Grid(Grid.DEFAULT_SIZE + 1));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+
+        try {
+            SnapshotFormat.read((ByteBuffer) buffer.rewind(), new Grid(Grid.DEFAULT_SIZE, Grid.Storage.BITBOARD,
+                                                                       Fleet.of(Ship.PATROL), Grid.Placement.UNIFORM));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+
+        // mark every square missed, but with a ship on it
+        for (int i = SnapshotFormat.size(Grid.DEFAULT_SIZE) - 50; i < buffer.limit(); i++) {
+            buffer.put(i, (byte) 0xFF);
+        }
+        try {
+            SnapshotFormat.read((ByteBuffer) buffer.rewind(), new Grid(Grid.DEFAULT_SIZE));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+
+        try {
+            SnapshotFormat.readSize(ByteBuffer.allocate(32));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package battleship.model;
+
+public class SparseGridTest extends GridTest {
+
+    @Override
+    protected Grid newGrid(final int size) {
+        return new Grid(size, Grid.Storage.SPARSE);
+    }
+
+    public void testHugeGrid() throws Exception {
+        final int size = 100000;
+        final Grid grid = GridFactory.create(size);
+        assertEquals(Outcome.PLACED, grid.tryPlace(Ship.DESTROYER, size - 1, size - Ship.DESTROYER.length, Orientation.VERTICAL));
+        assertEquals(Outcome.MISS, grid.tryStrike(0, 0));
+        assertEquals(Outcome.HIT, grid.tryStrike(size - 1, size - 1));
+        assertEquals(Outcome.OFF_GRID, grid.tryStrike(size, 0));
+        try {
+            grid.tryStrike(Coordinate.pack(0, 1));
+            fail();
+        } catch (IllegalStateException e) {
+            // expected: squares beyond PACKED_LIMIT would pack as off the grid
+        }
+        assertEquals(CellStatus.EMPTY, grid.getCell(new Coordinate(size - 2, size - 1)).getStatus());
+        assertTrue(grid.areAnyShipsAfloat());
+
+        grid.placeAllShipsRandomly(new JdkRandomSource(3));
+        assertTrue(grid.areAnyShipsAfloat());
+    }
+
+    public void testOnlyOccupiedCellsAreStored() throws Exception {
+        final SparseStore store = new SparseStore(1000);
+        store.setShip(10, 20, Ship.PATROL.id);
+        store.setStatus(10, 20, CellStatus.PLACED);
+        store.setStatus(5, 5, CellStatus.MISSED);
+        assertEquals(2, store.occupancy());
+        assertEquals(Ship.PATROL.id, store.getShip(10, 20));
+
+        store.setStatus(10, 20, CellStatus.EMPTY);
+        store.setShip(10, 20, CellStore.NO_SHIP);
+        assertEquals(1, store.occupancy());
+        assertEquals(CellStatus.EMPTY, store.getStatus(10, 20));
+    }
+}
@@ -0,0 +1,106 @@
+package battleship.persistence;
+
+import battleship.controller.GameEngine;
+import battleship.model.Fleet;
+import battleship.model.Grid;
+import battleship.model.Outcome;
+import battleship.model.Ship;
+import battleship.model.SplittableRandomSource;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+public class MappedSnapshotStoreTest extends TestCase {
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("snapshots", ".bin");
+        assertTrue(file.delete());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public void testSuspendAndResume() throws Exception {
+        final GameEngine engine = new GameEngine(new Grid(), new SplittableRandomSource(9));
+        for (int x = 0; x < 5; x++) {
+            engine.fire(x, x);
+        }
+
+        final MappedSnapshotStore store = new MappedSnapshotStore(file.toPath(), Grid.DEFAULT_SIZE, 1000);
+        assertNull(store.load(999));
+        store.save(999, engine);
+        store.save(0, new GameEngine(new Grid(), null));
+        store.close();
+
+        // survives reopening the file
+        final MappedSnapshotStore reopened = new MappedSnapshotStore(file.toPath(), Grid.DEFAULT_SIZE, 1000);
+        final GameEngine resumed = reopened.load(999);
+        assertEquals(5, resumed.getAttempts());
+        assertEquals(engine.getGrid().display(false), resumed.getGrid().display(false));
+        assertEquals(Outcome.REPEAT, resumed.fire(2, 2));
+        assertNotNull(reopened.load(0));
+        assertNull(reopened.load(1));
+
+        reopened.clear(999);
+        assertNull(reopened.load(999));
+        reopened.close();
+    }
+
+    public void testRejectsSnapshotsLargerThanARegion() throws Exception {
+        try {
+            new MappedSnapshotStore(file.toPath(), 50000, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected: four bits a square is over a gigabyte
+        }
+        assertFalse(file.exists());
+    }
+
+    public void testRejectsOtherDimensions() throws Exception {
+        new MappedSnapshotStore(file.toPath(), Grid.DEFAULT_SIZE, 10).close();
+        try {
+            new MappedSnapshotStore(file.toPath(), Grid.DEFAULT_SIZE, 11);
+            fail();
+        } catch (IOException e) {
+            // expected.
+        }
+
+        // the same names of other lengths take slots of the same size
+        final Fleet reordered = new Fleet.Builder().add("PATROL", 3, 1).add("SUBMARINE", 2, 1)
+                                                   .add("DESTROYER", 4, 1).build();
+        try {
+            new MappedSnapshotStore(file.toPath(), Grid.DEFAULT_SIZE, reordered, 10);
+            fail();
+        } catch (IOException e) {
+            // expected.
+        }
+
+        final MappedSnapshotStore store = new MappedSnapshotStore(file.toPath(), Grid.DEFAULT_SIZE, 10);
+        try {
+            store.save(0, new GameEngine(new Grid(Grid.DEFAULT_SIZE + 1), null));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+        try {
+            store.save(0, new GameEngine(new Grid(Grid.DEFAULT_SIZE, Grid.DEFAULT_STORAGE, Fleet.of(Ship.PATROL),
+                                                  Grid.Placement.UNIFORM), null));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+        try {
+            store.load(10);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected.
+        }
+        store.close();
+    }
+}
@@ -0,0 +1,203 @@
+package battleship.persistence;
+
+import battleship.controller.GameEngine;
+import battleship.model.Coordinate;
+import battleship.model.Fleet;
+import battleship.model.Grid;
+import battleship.model.Ship;
+import battleship.model.SplittableRandomSource;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class MoveJournalTest extends TestCase {
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("journal", ".bin");
+        assertTrue(file.delete());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    private static GameEngine record(final MoveJournal journal, final long gameId, final long seed,
+                                     final int shots) throws Exception {
+        final Grid grid = new Grid();
+        grid.setMoveListener(journal.newGame(gameId, Grid.DEFAULT_SIZE));
+        final GameEngine engine = new GameEngine(grid, new SplittableRandomSource(seed));
+        for (int i = 0; i < shots && !engine.isWon(); i++) {
+            engine.fire(i % Grid.DEFAULT_SIZE, i / Grid.DEFAULT_SIZE % Grid.DEFAULT_SIZE);
+        }
+        return engine;
+    }
+
+    public void testRebuildAndVerify() throws Exception {
+        final MoveJournal journal = new MoveJournal(file.toPath());
+        final GameEngine first = record(journal, 1, 1, 40);
+        final GameEngine second = record(journal, 2, 2, 1000);
+        record(journal, 1, 3, 0); // replaced by a later game of the same id
+        final GameEngine third = record(journal, 1, 4, 20);
+        journal.close();
+
+        final JournalReplay replay = new JournalReplay(file.toPath());
+        assertEquals(third.getGrid().display(false), replay.rebuild(1).display(false));
+        assertEquals(second.getGrid().display(false), replay.rebuild(2).display(false));
+        assertEquals(0, replay.getMismatches());
+        assertFalse(first.getGrid().display(false).equals(replay.rebuild(1).display(false)));
+        assertNull(replay.rebuild(3));
+
+        assertEquals(0, replay.verify());
+        assertEquals(4, replay.getGames());
+    }
+
+    public void testLargeFleet() throws Exception {
+        final Fleet fleet = new Fleet.Builder().add(Ship.PATROL, 300).add("BARGE", 1, 200).build();
+        final MoveJournal journal = new MoveJournal(file.toPath());
+        final Grid grid = new Grid(40, Grid.DEFAULT_STORAGE, fleet, Grid.Placement.REJECTION);
+        grid.setMoveListener(journal.newGame(5, 40, fleet));
+        final GameEngine engine = new GameEngine(grid, new SplittableRandomSource(5));
+        for (int i = 0; i < 40 * 40; i += 3) {
+            engine.fire(i % 40, i / 40);
+        }
+        journal.close();
+
+        final JournalReplay replay = new JournalReplay(file.toPath());
+        final Grid rebuilt = replay.rebuild(5);
+        assertEquals(grid.display(false), rebuilt.display(false));
+        assertEquals(grid.getShipsAfloat(), rebuilt.getShipsAfloat());
+        assertEquals(500, rebuilt.getFleet().size());
+        assertEquals("PATROL", rebuilt.getFleet().get(299).getName());
+        assertEquals("SHIP", rebuilt.getFleet().get(300).getName());
+        assertEquals(0, replay.verify());
+    }
+
+    public void testVerifyDetectsMismatches() throws Exception {
+        final MoveJournal journal = new MoveJournal(file.toPath());
+        record(journal, 7, 7, 10);
+        journal.close();
+
+        // turn the outcome of the last strike into a different one
+        final RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(raw.length() - 1);
+        final int outcome = raw.read();
+        raw.seek(raw.length() - 1);
+        raw.write(outcome == 3 ? 4 : 3);
+        raw.close();
+
+        assertEquals(1, new JournalReplay(file.toPath()).verify());
+    }
+
+    public void testMovesSurviveWithoutClose() throws Exception {
+        final MoveJournal journal = new MoveJournal(file.toPath());
+        final GameEngine engine = record(journal, 3, 3, 25);
+
+        // as if the process died here: the file is read while the journal is still open
+        final JournalReplay replay = new JournalReplay(file.toPath());
+        assertEquals(engine.getGrid().display(false), replay.rebuild(3).display(false));
+        assertEquals(0, replay.verify());
+        assertEquals(journal.getAppended(), replay.getEntries());
+        journal.close();
+    }
+
+    public void testRejectsGridTooLargeToJournal() throws Exception {
+        final MoveJournal journal = new MoveJournal(file.toPath());
+        try {
+            journal.newGame(1, Coordinate.PACKED_LIMIT + 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected: its squares cannot be packed
+        }
+        journal.close();
+    }
+
+    public void testVerifyCountsCorruptEntries() throws Exception {
+        final MoveJournal journal = new MoveJournal(file.toPath());
+        final GameEngine engine = record(journal, 7, 7, 10);
+        journal.append(7, Coordinate.pack(0, 0), MoveJournal.PLACE, 0);          // ship placed twice
+        journal.append(7, Coordinate.pack(9, 9), MoveJournal.STRIKE, 0xFFFF);     // no such outcome
+        journal.append(7, Coordinate.pack(9, 9), (byte) 9, 0);                    // no such type
+        journal.append(8, 10, MoveJournal.NEW, 1);
+        journal.append(8, 2, MoveJournal.FLEET, 15 << 20 | 1);                    // no such standard type
+        journal.close();
+
+        final JournalReplay replay = new JournalReplay(file.toPath());
+        assertEquals(engine.getGrid().display(false), replay.rebuild(7).display(false));
+        assertEquals(3, replay.getMismatches());
+        assertEquals(5, replay.verify());
+    }
+
+    public void testRejectsShortHeader() throws Exception {
+        final RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.writeInt(MoveJournal.MAGIC);
+        raw.close();
+        try {
+            new MoveJournal(file.toPath());
+            fail();
+        } catch (IOException e) {
+            // expected: the version is missing
+        }
+    }
+
+    public void testReopenDropsTornEntry() throws Exception {
+        MoveJournal journal = new MoveJournal(file.toPath());
+        record(journal, 1, 1, 10);
+        journal.close();
+        final long length = file.length();
+
+        final RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.setLength(length + 5);
+        raw.close();
+        assertEquals(0, new JournalReplay(file.toPath()).verify());
+
+        journal = new MoveJournal(file.toPath());
+        final GameEngine engine = record(journal, 2, 2, 10);
+        journal.close();
+        assertEquals(length + (file.length() - length) / MoveJournal.ENTRY * MoveJournal.ENTRY, file.length());
+        assertEquals(engine.getGrid().display(false), new JournalReplay(file.toPath()).rebuild(2).display(false));
+    }
+
+    public void testGroupCommitFromManyThreads() throws Exception {
+        final MoveJournal journal = new MoveJournal(file.toPath());
+        final int threads = 4;
+        final int gamesPerThread = 50;
+        final Throwable[] failure = new Throwable[1];
+
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            workers[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int game = 0; game < gamesPerThread; game++) {
+                            record(journal, thread * gamesPerThread + game, game, 100);
+                            journal.sync(journal.getAppended());
+                        }
+                    } catch (Throwable e) {
+                        failure[0] = e;
+                    }
+                }
+            };
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertNull(failure[0]);
+        final long appended = journal.getAppended();
+        journal.close();
+
+        assertEquals(MoveJournal.HEADER + appended * MoveJournal.ENTRY, file.length());
+        final JournalReplay replay = new JournalReplay(file.toPath());
+        assertEquals(0, replay.verify());
+        assertEquals(threads * gamesPerThread, replay.getGames());
+        assertEquals(appended, replay.getEntries());
+    }
+}
@@ -0,0 +1,149 @@
+package battleship.server;
+
+import battleship.model.Ship;
+import battleship.model.SplittableRandomSource;
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class GameServerTest extends TestCase {
+
+    private GameServer server;
+    private Thread thread;
+
+    private void start(final long idleTimeoutMillis, final int maxSessions) throws Exception {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 10,
+                                idleTimeoutMillis, maxSessions, new SplittableRandomSource(1));
+        thread = new Thread(server);
+        thread.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.close();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+    }
+
+    private Socket connect() throws Exception {
+        final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private static BufferedReader reader(final Socket socket) throws Exception {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    private static void send(final Socket socket, final String lines) throws Exception {
+        final OutputStream out = socket.getOutputStream();
+        out.write(lines.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    public void testPlayToWin() throws Exception {
+        start(10000, 10);
+        final Socket socket = connect();
+        final BufferedReader in = reader(socket);
+
+        // pipeline every shot at once; the server answers them in order
+        final StringBuilder shots = new StringBuilder();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                shots.append(x).append(y % 2 == 0 ? "," : " ").append(y).append("\r\n");
+            }
+        }
+        send(socket, shots.toString());
+
+        int sunk = 0;
+        String line;
+        while (!(line = in.readLine()).startsWith("WON")) {
+            final String[] parts = line.split(" ");
+            assertTrue(line, parts[0].equals("HIT") || parts[0].equals("MISS") || parts[0].equals("SUNK"));
+            if (parts[0].equals("SUNK")) {
+                Ship.valueOf(parts[2]);
+                sunk++;
+            }
+        }
+        assertEquals(Ship.values().length, sunk);
+        socket.close();
+    }
+
+    public void testCommands() throws Exception {
+        start(10000, 10);
+        final Socket socket = connect();
+        final BufferedReader in = reader(socket);
+
+        send(socket, "0,0\n0,0\n10,0\n\nnew\n1,x\n 2 , 3 \n");
+        assertTrue(in.readLine().endsWith(" 1"));
+        assertTrue(in.readLine().startsWith("REPEAT 2"));
+        assertEquals("OFF_GRID 2", in.readLine());
+        assertEquals("ERROR", in.readLine());
+        assertEquals("OK", in.readLine());
+        assertEquals("ERROR", in.readLine());
+        assertTrue(in.readLine().endsWith(" 1"));
+
+        send(socket, "QUIT\n");
+        assertEquals(-1, in.read());
+    }
+
+    public void testQuitSendsEarlierResponses() throws Exception {
+        start(10000, 10);
+        final Socket socket = connect();
+        final BufferedReader in = reader(socket);
+
+        send(socket, "0,0\nNEW\nQUIT\n0,0\n");
+        assertTrue(in.readLine().endsWith(" 1"));
+        assertEquals("OK", in.readLine());
+        assertEquals(-1, in.read());
+    }
+
+    public void testLongLineClosesSession() throws Exception {
+        start(10000, 10);
+        final Socket socket = connect();
+        send(socket, "000000000000000000000000000000000000000000,0\n");
+        assertEquals(-1, socket.getInputStream().read());
+    }
+
+    public void testIdleSessionsAreEvicted() throws Exception {
+        start(100, 10);
+        final Socket socket = connect();
+        send(socket, "0,0\n");
+        final BufferedReader in = reader(socket);
+        assertNotNull(in.readLine());
+        assertEquals(-1, in.read());
+
+        for (int i = 0; i < 100 && server.getSessionCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getSessionCount());
+    }
+
+    public void testManySessions() throws Exception {
+        final int clients = 200;
+        start(10000, clients);
+        final Socket[] sockets = new Socket[clients];
+        for (int i = 0; i < clients; i++) {
+            sockets[i] = connect();
+            send(sockets[i], i % 10 + "," + i / 10 % 10 + "\n");
+        }
+        for (Socket socket : sockets) {
+            assertTrue(reader(socket).readLine().endsWith(" 1"));
+        }
+        assertEquals(clients, server.getSessionCount());
+
+        // beyond the limit connections are refused
+        final Socket refused = connect();
+        assertEquals(-1, refused.getInputStream().read());
+
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+}
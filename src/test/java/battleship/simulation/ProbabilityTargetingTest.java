@@ -0,0 +1,68 @@
+package battleship.simulation;
+
+import battleship.model.Coordinate;
+import battleship.model.Fleet;
+import battleship.model.Grid;
+import battleship.model.JdkRandomSource;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
+import battleship.model.Ship;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+public class ProbabilityTargetingTest extends TestCase {
+
+    public void testIncrementalHeatMapsMatchRecomputation() throws Exception {
+        assertHeatMapsMatchRecomputation(10, Fleet.STANDARD, 50);
+    }
+
+    public void testHeatMapsOfShipsOfTheSameLength() throws Exception {
+        final Fleet fleet = new Fleet.Builder().add(Ship.PATROL, 4).add("BARGE", 1, 3).add(Ship.DESTROYER, 2).build();
+        assertHeatMapsMatchRecomputation(12, fleet, 10);
+    }
+
+    private static void assertHeatMapsMatchRecomputation(final int size, final Fleet fleet, final int games) {
+        final RandomSource random = new JdkRandomSource(3);
+        final ProbabilityTargeting strategy = new ProbabilityTargeting();
+
+        for (int game = 0; game < games; game++) {
+            final Grid grid = new Grid(size, Grid.Storage.BITBOARD, fleet, Grid.Placement.UNIFORM);
+            grid.placeAllShipsRandomly(random);
+            strategy.newGame(size, grid.getFleet(), random);
+
+            int shots = 0;
+            while (grid.areAnyShipsAfloat()) {
+                final int shot = strategy.nextShot();
+                final Outcome outcome = grid.tryStrike(shot);
+                assertNotSame(Outcome.REPEAT, outcome);
+                strategy.record(shot, outcome, outcome == Outcome.SUNK ?
+                        grid.getRevealedShip(Coordinate.unpackX(shot), Coordinate.unpackY(shot)) : null);
+
+                final int[][] expected = strategy.recompute();
+                assertTrue(Arrays.equals(expected[0], strategy.getDensity()));
+                assertTrue(Arrays.equals(expected[1], strategy.getHitDensity()));
+                assertTrue(++shots <= size * size);
+            }
+        }
+    }
+
+    public void testBeatsRandomTargeting() throws Exception {
+        final SimulationReport random = new Simulator(10, new Supplier<TargetingStrategy>() {
+            @Override
+            public TargetingStrategy get() {
+                return new RandomTargeting();
+            }
+        }).run(500, 1);
+
+        final SimulationReport density = new Simulator(10, new Supplier<TargetingStrategy>() {
+            @Override
+            public TargetingStrategy get() {
+                return new ProbabilityTargeting();
+            }
+        }).run(500, 1);
+
+        assertTrue(density.getMean() < random.getMean() * 0.6);
+    }
+}
@@ -0,0 +1,105 @@
+package battleship.simulation;
+
+import battleship.model.Coordinate;
+import battleship.model.Fleet;
+import battleship.model.Outcome;
+import battleship.model.RandomSource;
+import battleship.model.Ship;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+public class SimulatorTest extends TestCase {
+
+    private static final Supplier<TargetingStrategy> RANDOM_TARGETING = new Supplier<TargetingStrategy>() {
+        @Override
+        public TargetingStrategy get() {
+            return new RandomTargeting();
+        }
+    };
+
+    public void testRandomTargeting() throws Exception {
+        final int size = 10;
+        final SimulationReport report = new Simulator(size, RANDOM_TARGETING).run(2000, 1);
+
+        int fleetCells = 0;
+        for (Ship ship : Ship.values()) {
+            fleetCells += ship.getLength();
+        }
+
+        assertEquals(2000, report.getGames());
+        assertTrue(report.getMin() >= fleetCells);
+        assertTrue(report.getMax() <= size * size);
+        assertTrue(report.getPercentile(50) <= report.getPercentile(99));
+        assertTrue(report.getMean() > report.getMin() && report.getMean() < report.getMax());
+    }
+
+    public void testSameSeedSameResults() throws Exception {
+        final Simulator simulator = new Simulator(10, RANDOM_TARGETING);
+        assertTrue(Arrays.equals(simulator.run(1000, 7).getHistogram(), simulator.run(1000, 7).getHistogram()));
+    }
+
+    public void testHistogramSizedByLongestGame() throws Exception {
+        final int size = 2000;
+        final SimulationReport report = new Simulator(size, new Supplier<TargetingStrategy>() {
+            @Override
+            public TargetingStrategy get() {
+                return new TargetingStrategy() {
+                    private int next;
+
+                    @Override
+                    public void newGame(final int size, final Fleet fleet, final RandomSource random) {
+                        next = 0;
+                    }
+
+                    @Override
+                    public int nextShot() {
+                        // sweep row by row, so every game is won within size * size shots
+                        final int shot = Coordinate.pack(next % size, next / size);
+                        next++;
+                        return shot;
+                    }
+
+                    @Override
+                    public void record(final int packedCoord, final Outcome outcome, final Ship sunk) {
+                    }
+                };
+            }
+        }).run(2, 1);
+
+        assertEquals(2, report.getGames());
+        assertTrue(report.getMax() <= size * size);
+        assertEquals(report.getMax() + 1, report.getHistogram().length);
+    }
+
+    public void testStrategyThatNeverWins() throws Exception {
+        final Simulator simulator = new Simulator(10, new Supplier<TargetingStrategy>() {
+            @Override
+            public TargetingStrategy get() {
+                return new RandomTargeting() {
+                    @Override
+                    public int nextShot() {
+                        return Coordinate.INVALID;
+                    }
+                };
+            }
+        });
+
+        try {
+            simulator.run(1, 1);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected.
+        }
+    }
+
+    public void testPercentile() throws Exception {
+        final SimulationReport report = new SimulationReport(new long[]{0, 1, 2, 0, 1}, 0);
+        assertEquals(4, report.getGames());
+        assertEquals(1, report.getPercentile(25));
+        assertEquals(2, report.getPercentile(50));
+        assertEquals(4, report.getPercentile(100));
+        assertEquals(2.25, report.getMean(), 1e-9);
+    }
+}
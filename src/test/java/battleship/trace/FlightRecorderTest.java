@@ -0,0 +1,96 @@
+package battleship.trace;
+
+import battleship.model.ConcurrentGrid;
+import battleship.model.Coordinate;
+import battleship.model.Grid;
+import battleship.model.MoveListener;
+import battleship.model.Orientation;
+import battleship.model.Outcome;
+import battleship.model.Ship;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FlightRecorderTest extends TestCase {
+
+    public void testDump() throws Exception {
+        final List<String> passedOn = new ArrayList<String>();
+        final FlightRecorder recorder = new FlightRecorder(3, new MoveListener() {
+            @Override
+            public void placed(final Ship ship, final int x, final int y, final Orientation orientation) {
+                passedOn.add(ship.getName());
+            }
+
+            @Override
+            public void struck(final int x, final int y, final Outcome outcome) {
+                passedOn.add(outcome.name());
+            }
+        });
+        assertEquals(4, recorder.getCapacity());
+        assertEquals("", recorder.toString());
+
+        final Grid grid = new Grid();
+        grid.setMoveListener(recorder);
+        grid.tryPlace(Ship.PATROL, 1, 2);
+        grid.tryStrike(0, 0);
+        grid.tryStrike(1, 2);
+        assertEquals("#0 PLACED PATROL 1,2 HORIZONTAL\n"
+                             + "#1 MISS 0,0\n"
+                             + "#2 HIT 1,2\n", recorder.toString());
+
+        grid.tryStrike(2, 2);
+        grid.tryStrike(2, 2);
+        grid.tryStrike(Grid.DEFAULT_SIZE, 0); // off the grid is not a move
+        assertEquals(5, recorder.getRecorded());
+        assertEquals("... 1 earlier moves\n"
+                             + "#1 MISS 0,0\n"
+                             + "#2 HIT 1,2\n"
+                             + "#3 SUNK 2,2\n"
+                             + "#4 REPEAT 2,2\n", recorder.toString());
+        assertEquals(5, passedOn.size());
+        assertEquals("PATROL", passedOn.get(0));
+
+        recorder.struck(Coordinate.PACKED_LIMIT, 0, Outcome.MISS);
+        assertTrue(recorder.toString().endsWith("#5 MISS ?,?\n"));
+    }
+
+    public void testConcurrentRecording() throws Exception {
+        final int size = 64;
+        final ConcurrentGrid grid = new ConcurrentGrid(size);
+        final FlightRecorder recorder = new FlightRecorder(16, null);
+        grid.setMoveListener(recorder);
+
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int row = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int x = 0; x < size; x++) {
+                        grid.tryStrike(x, row);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (int i = 0; i < 100; i++) {
+            // dumps taken while recording must stay well-formed, each move under its own number
+            long previous = -1;
+            for (String line : recorder.toString().split("\n")) {
+                assertTrue(line, line.isEmpty() || line.startsWith("#") || line.startsWith("..."));
+                if (line.startsWith("#")) {
+                    final long sequence = Long.parseLong(line.substring(1, line.indexOf(' ')));
+                    assertTrue(line, sequence > previous);
+                    previous = sequence;
+                }
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threads.length * size, recorder.getRecorded());
+        assertEquals(17, recorder.toString().split("\n").length);
+    }
+}
@@ -0,0 +1,81 @@
+package battleship.view;
+
+import battleship.model.Grid;
+import battleship.model.Ship;
+import junit.framework.TestCase;
+
+import java.io.StringWriter;
+
+public class AnsiRendererTest extends TestCase {
+
+    private StringWriter out;
+
+    private String frame(final AnsiRenderer renderer) throws Exception {
+        out.getBuffer().setLength(0);
+        renderer.flush();
+        return out.toString();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        out = new StringWriter();
+    }
+
+    public void testPlainFrames() throws Exception {
+        final Grid grid = new Grid(4);
+        final AnsiRenderer renderer = new AnsiRenderer(out, false, 80, 24);
+        renderer.message("Welcome");
+        renderer.grid(grid);
+        renderer.message("Prompt");
+        assertEquals("Welcome\n\nOOOO\nOOOO\nOOOO\nOOOO\nPrompt\n", frame(renderer));
+        assertEquals("", frame(renderer));
+    }
+
+    public void testRedrawsOnlyChangedSquares() throws Exception {
+        final Grid grid = new Grid(4);
+        grid.tryPlace(Ship.PATROL, 0, 0);
+        final AnsiRenderer renderer = new AnsiRenderer(out, true, 80, 24);
+        renderer.grid(grid);
+        renderer.message("Prompt");
+        assertEquals("\u001b[H\u001b[2J\u001b[1;1HOOOO\u001b[2;1HOOOO\u001b[3;1HOOOO\u001b[4;1HOOOO"
+                             + "\u001b[6;1H\u001b[JPrompt\n", frame(renderer));
+
+        grid.tryStrike(1, 0);
+        grid.tryStrike(2, 0);
+        grid.tryStrike(3, 3);
+        renderer.grid(grid);
+        assertEquals("\u001b[1;2H+X\u001b[4;4HX\u001b[6;1H\u001b[J", frame(renderer));
+        assertEquals("\u001b[6;1H\u001b[J", frame(renderer));
+    }
+
+    public void testViewport() throws Exception {
+        final Grid grid = new Grid(20);
+        // room for a 10 by 10 view, its status line and the messages
+        final AnsiRenderer renderer = new AnsiRenderer(out, true, 10, 10 + 1 + AnsiRenderer.MESSAGE_ROWS);
+        renderer.grid(grid);
+        assertTrue(frame(renderer).contains("x 0-9, y 0-9 of 20"));
+
+        grid.tryStrike(15, 2);
+        renderer.focus(15, 2);
+        String frame = frame(renderer);
+        assertTrue(frame, frame.contains("x 6-15, y 0-9 of 20"));
+        assertTrue(frame, frame.contains("\u001b[3;10HX"));
+
+        // scrolling back redraws only what differs on screen
+        renderer.focus(0, 0);
+        frame = frame(renderer);
+        assertTrue(frame, frame.contains("x 0-9, y 0-9 of 20"));
+        assertTrue(frame, frame.startsWith("\u001b[3;10HO\u001b[11;1H"));
+    }
+
+    public void testRedrawAfterScrolling() throws Exception {
+        final AnsiRenderer renderer = new AnsiRenderer(out, true, 80, 24);
+        renderer.grid(new Grid(4));
+        frame(renderer);
+        for (int i = 0; i < AnsiRenderer.MESSAGE_ROWS; i++) {
+            renderer.message("line");
+        }
+        frame(renderer);
+        assertTrue(frame(renderer).startsWith("\u001b[H\u001b[2J"));
+    }
+}